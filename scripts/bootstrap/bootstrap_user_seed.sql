@@ -232,6 +232,18 @@ WHERE @bootstrapPolicyId IS NOT NULL
         AND capability_id = @bootstrapCapabilityId
   );
 
+-- Role grants of the policy expression, used by role lookups
+INSERT INTO policy_roles (policy_id, role_name)
+SELECT @bootstrapPolicyId,
+       r.role_name
+FROM (SELECT 'PLATFORM_BOOTSTRAP' AS role_name UNION ALL SELECT 'ADMIN') r
+WHERE @bootstrapPolicyId IS NOT NULL
+  AND NOT EXISTS (
+      SELECT 1 FROM policy_roles pr
+      WHERE pr.policy_id = @bootstrapPolicyId
+        AND pr.role_name = r.role_name
+  );
+
 -- 6. Link bootstrap policy to catalog-management endpoints only
 INSERT INTO endpoint_policies (endpoint_id, policy_id)
 SELECT e.id,
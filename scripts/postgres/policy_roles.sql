@@ -0,0 +1,22 @@
+-- Normalized role grants of policy expressions ({"roles": [...]}), replacing LIKE scans over policies.expression.
+-- The application keeps the rows in step whenever a policy expression is saved.
+-- Needed where Hibernate runs with ddl-auto=validate (prod); dev/staging create the table automatically
+-- but still need the backfill below for policies that existed before it.
+CREATE TABLE IF NOT EXISTS policy_roles (
+    policy_id BIGINT      NOT NULL REFERENCES policies (id) ON DELETE CASCADE,
+    role_name VARCHAR(50) NOT NULL,
+    PRIMARY KEY (policy_id, role_name)
+);
+
+CREATE INDEX IF NOT EXISTS idx_policy_roles_role_name ON policy_roles (role_name, policy_id);
+
+-- Backfill from existing expressions; safe to re-run.
+INSERT INTO policy_roles (policy_id, role_name)
+SELECT DISTINCT p.id, r.role_name
+FROM policies p
+CROSS JOIN LATERAL jsonb_array_elements_text(
+    CASE WHEN jsonb_typeof(p.expression::jsonb -> 'roles') = 'array'
+         THEN p.expression::jsonb -> 'roles'
+         ELSE '[]'::jsonb
+    END) AS r(role_name)
+ON CONFLICT DO NOTHING;
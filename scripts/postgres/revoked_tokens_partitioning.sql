@@ -0,0 +1,76 @@
+-- Converts revoked_tokens into a table range-partitioned by expires_at, one partition per UTC day,
+-- so expired revocations are removed with DROP TABLE on a partition instead of row deletes.
+-- Run once with the application stopped (or during low traffic), then enable
+-- app.jwt.revocation.compaction.partitioned=true so the compactor maintains partitions.
+-- Intended for ddl-auto=validate/none: token_id can no longer be unique on its own, because
+-- unique indexes on a partitioned table must include the partition key.
+
+CREATE OR REPLACE FUNCTION revoked_tokens_maintain_partitions(days_ahead INT DEFAULT 7)
+RETURNS INT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    today   DATE := (now() AT TIME ZONE 'UTC')::date;
+    day     DATE;
+    part    RECORD;
+    dropped INT := 0;
+BEGIN
+    FOR i IN 0..days_ahead LOOP
+        day := today + i;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF revoked_tokens FOR VALUES FROM (%L) TO (%L)',
+            'revoked_tokens_' || to_char(day, 'YYYYMMDD'),
+            day::timestamp AT TIME ZONE 'UTC',
+            (day + 1)::timestamp AT TIME ZONE 'UTC');
+    END LOOP;
+
+    -- A partition named for a day before today only holds tokens that have already expired.
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'revoked_tokens'::regclass
+          AND c.relname ~ '^revoked_tokens_[0-9]{8}$'
+          AND to_date(right(c.relname, 8), 'YYYYMMDD') < today
+    LOOP
+        EXECUTE format('DROP TABLE %I', part.relname);
+        dropped := dropped + 1;
+    END LOOP;
+
+    RETURN dropped;
+END;
+$$;
+
+BEGIN;
+
+ALTER TABLE revoked_tokens RENAME TO revoked_tokens_unpartitioned;
+
+CREATE TABLE revoked_tokens (
+    id          BIGSERIAL,
+    token_id    VARCHAR(100) NOT NULL,
+    user_id     BIGINT,
+    expires_at  TIMESTAMPTZ  NOT NULL,
+    created_at  TIMESTAMPTZ  NOT NULL,
+    PRIMARY KEY (id, expires_at)
+) PARTITION BY RANGE (expires_at);
+
+-- Catches rows beyond the pre-created days; keep days_ahead above the longest token lifetime so it stays empty.
+CREATE TABLE revoked_tokens_default PARTITION OF revoked_tokens DEFAULT;
+
+SELECT revoked_tokens_maintain_partitions(7);
+
+INSERT INTO revoked_tokens (id, token_id, user_id, expires_at, created_at)
+SELECT id, token_id, user_id, expires_at, created_at
+FROM revoked_tokens_unpartitioned
+WHERE expires_at > now();
+
+SELECT setval(pg_get_serial_sequence('revoked_tokens', 'id'),
+              COALESCE((SELECT MAX(id) FROM revoked_tokens_unpartitioned), 0) + 1, false);
+
+DROP TABLE revoked_tokens_unpartitioned;
+
+CREATE INDEX idx_revoked_token_token_id ON revoked_tokens (token_id);
+CREATE INDEX idx_revoked_token_expires_at ON revoked_tokens (expires_at);
+CREATE INDEX idx_revoked_token_created_at ON revoked_tokens (created_at);
+
+COMMIT;
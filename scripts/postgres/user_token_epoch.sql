@@ -0,0 +1,4 @@
+-- Adds the per-user token epoch used by "log out everywhere" and account disable.
+-- Tokens whose iat is before users.tokens_valid_after are rejected.
+-- Needed where Hibernate runs with ddl-auto=validate (prod); dev/staging create it automatically.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS tokens_valid_after TIMESTAMPTZ;
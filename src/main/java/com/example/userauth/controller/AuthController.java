@@ -68,9 +68,26 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/refresh")
+    @Auditable(action = "TOKEN_REFRESH", resourceType = "USER")
+    @Operation(summary = "Refresh access token", description = "Exchange a refresh token for a new access token and a rotated refresh token")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tokens refreshed"),
+        @ApiResponse(responseCode = "401", description = "Refresh token invalid, expired or reused")
+    })
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest refreshRequest) {
+        try {
+            AuthResponse response = authService.refresh(refreshRequest.getRefreshToken());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            logger.warn("Token refresh rejected: {}", e.getMessage());
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid or expired refresh token"));
+        }
+    }
+
     @PostMapping("/logout")
     @Auditable(action = "LOGOUT", resourceType = "USER")
-    @Operation(summary = "User logout", description = "Revoke the current JWT token")
+    @Operation(summary = "User logout", description = "Revoke the current JWT token and its refresh tokens")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Logout successful"),
         @ApiResponse(responseCode = "400", description = "Authorization header missing"),
@@ -237,7 +254,7 @@ public class AuthController {
     public ResponseEntity<?> invalidateUserTokens(
         @Parameter(description = "User ID") @PathVariable Long userId) {
         try {
-            authService.updateUserPermissions(userId);
+            authService.revokeAllSessions(userId);
             return ResponseEntity.ok(Map.of(
                 "message", "All tokens for user have been invalidated. User must re-login.",
                 "userId", userId
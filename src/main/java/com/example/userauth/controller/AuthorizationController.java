@@ -159,6 +159,11 @@ public class AuthorizationController {
      * Adjust based on your actual authentication implementation
      */
     private Long extractUserIdFromAuthentication(Authentication authentication) {
+        // JWT-authenticated requests carry the cached principal snapshot
+        if (authentication.getPrincipal() instanceof com.example.userauth.security.UserPrincipal principal) {
+            return principal.getId();
+        }
+
         // If using UserDetails with User entity
         if (authentication.getPrincipal() instanceof com.example.userauth.entity.User) {
             com.example.userauth.entity.User user = 
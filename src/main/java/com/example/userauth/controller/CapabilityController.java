@@ -2,6 +2,8 @@ package com.example.userauth.controller;
 
 import com.example.userauth.entity.Capability;
 import com.example.userauth.repository.CapabilityRepository;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import jakarta.servlet.http.HttpServletRequest;
@@ -35,8 +37,12 @@ public class CapabilityController {
     @Autowired
     private ObjectMapper objectMapper;
 
-    public CapabilityController(CapabilityRepository capabilityRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CapabilityController(CapabilityRepository capabilityRepository,
+                                ApplicationEventPublisher eventPublisher) {
         this.capabilityRepository = capabilityRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -99,6 +105,7 @@ public class CapabilityController {
                 request.getResource()
         );
         Capability saved = capabilityRepository.save(capability);
+        capabilityChanged(saved.getId());
         return ResponseEntity.ok(saved);
     }
 
@@ -120,6 +127,7 @@ public class CapabilityController {
                     capability.setResource(request.getResource());
                     capability.setIsActive(request.getIsActive());
                     Capability updated = capabilityRepository.save(capability);
+                    capabilityChanged(id);
                     return ResponseEntity.ok(updated);
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -133,6 +141,7 @@ public class CapabilityController {
     public ResponseEntity<Void> deleteCapability(@PathVariable Long id) {
         if (capabilityRepository.existsById(id)) {
             capabilityRepository.deleteById(id);
+            capabilityChanged(id);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -148,11 +157,16 @@ public class CapabilityController {
                 .map(capability -> {
                     capability.setIsActive(!capability.getIsActive());
                     Capability updated = capabilityRepository.save(capability);
+                    capabilityChanged(id);
                     return ResponseEntity.ok(updated);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    private void capabilityChanged(Long capabilityId) {
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.CAPABILITY, capabilityId));
+    }
+
     // DTO classes
     public static class CapabilityRequest {
         private String name;
@@ -6,6 +6,8 @@ import com.example.userauth.entity.Policy;
 import com.example.userauth.repository.EndpointPolicyRepository;
 import com.example.userauth.repository.EndpointRepository;
 import com.example.userauth.repository.PolicyRepository;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import jakarta.servlet.http.HttpServletRequest;
@@ -48,14 +50,17 @@ public class EndpointController {
     private final EndpointRepository endpointRepository;
     private final PolicyRepository policyRepository;
     private final EndpointPolicyRepository endpointPolicyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public EndpointController(
             EndpointRepository endpointRepository,
             PolicyRepository policyRepository,
-            EndpointPolicyRepository endpointPolicyRepository) {
+            EndpointPolicyRepository endpointPolicyRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.endpointRepository = endpointRepository;
         this.policyRepository = policyRepository;
         this.endpointPolicyRepository = endpointPolicyRepository;
+        this.eventPublisher = eventPublisher;
     }
 
         /**
@@ -133,6 +138,7 @@ public class EndpointController {
         if (request.getPolicyIds() != null && !request.getPolicyIds().isEmpty()) {
             assignPolicies(saved.getId(), request.getPolicyIds());
         }
+        endpointChanged(saved.getId());
         
         return ResponseEntity.ok(convertToResponse(endpointRepository.findById(saved.getId()).get()));
     }
@@ -166,6 +172,7 @@ public class EndpointController {
                             assignPolicies(id, request.getPolicyIds());
                         }
                     }
+                    endpointChanged(id);
                     
                     return ResponseEntity.ok(convertToResponse(endpointRepository.findById(id).get()));
                 })
@@ -184,6 +191,7 @@ public class EndpointController {
             endpointPolicyRepository.deleteByEndpointId(id);
             // Delete endpoint
             endpointRepository.deleteById(id);
+            endpointChanged(id);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -199,6 +207,7 @@ public class EndpointController {
                 .map(endpoint -> {
                     endpoint.setIsActive(!endpoint.getIsActive());
                     Endpoint updated = endpointRepository.save(endpoint);
+                    endpointChanged(id);
                     return ResponseEntity.ok(convertToResponse(updated));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -243,6 +252,7 @@ public class EndpointController {
         }
         
         assignPolicies(id, request.getPolicyIds());
+        endpointChanged(id);
         
         return ResponseEntity.ok(convertToResponse(endpointRepository.findById(id).get()));
     }
@@ -258,6 +268,7 @@ public class EndpointController {
             @PathVariable Long policyId) {
         
         endpointPolicyRepository.deleteByEndpointIdAndPolicyId(id, policyId);
+        endpointChanged(id);
         return ResponseEntity.noContent().build();
     }
 
@@ -299,6 +310,10 @@ public class EndpointController {
             }
         }
 
+        if (!newlyAssigned.isEmpty()) {
+            eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.ENDPOINT, newlyAssigned));
+        }
+
         List<Map<String, Object>> endpointSummaries = endpointPolicyRepository.findByPolicyId(policyId)
                 .stream()
                 .map(ep -> {
@@ -324,6 +339,10 @@ public class EndpointController {
     }
 
     // Helper methods
+
+    private void endpointChanged(Long endpointId) {
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.ENDPOINT, endpointId));
+    }
     
     private void assignPolicies(Long endpointId, Set<Long> policyIds) {
         if (policyIds == null || policyIds.isEmpty()) {
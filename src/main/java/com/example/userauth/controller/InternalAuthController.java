@@ -1,5 +1,7 @@
 package com.example.userauth.controller;
 
+import com.example.userauth.dto.internal.TokenAuthorizationRequest;
+import com.example.userauth.dto.internal.TokenAuthorizationResponse;
 import com.example.userauth.dto.internal.TokenIntrospectionRequest;
 import com.example.userauth.dto.internal.TokenIntrospectionResponse;
 import com.example.userauth.service.TokenIntrospectionService;
@@ -42,12 +44,9 @@ public class InternalAuthController {
         @Valid @RequestBody TokenIntrospectionRequest request,
         HttpServletRequest servletRequest) {
 
-        if (StringUtils.hasText(expectedApiKey)) {
-            String providedKey = servletRequest.getHeader(apiKeyHeader);
-            if (!expectedApiKey.equals(providedKey)) {
-                log.warn("Rejected introspection call due to invalid API key");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-            }
+        if (!hasValidApiKey(servletRequest)) {
+            log.warn("Rejected introspection call due to invalid API key");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
         try {
@@ -58,4 +57,31 @@ public class InternalAuthController {
             return ResponseEntity.ok(TokenIntrospectionResponse.inactive());
         }
     }
+
+    /**
+     * Introspection and the endpoint access decision for {@code method path} in one round trip.
+     */
+    @PostMapping("/authorize")
+    public ResponseEntity<TokenAuthorizationResponse> authorize(
+        @Valid @RequestBody TokenAuthorizationRequest request,
+        HttpServletRequest servletRequest) {
+
+        if (!hasValidApiKey(servletRequest)) {
+            log.warn("Rejected authorization call due to invalid API key");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            TokenAuthorizationResponse response = tokenIntrospectionService.authorize(
+                request.getToken(), request.getMethod(), request.getPath());
+            return ResponseEntity.ok(response);
+        } catch (JwtException ex) {
+            log.debug("Authorization introspection failed: {}", ex.getMessage());
+            return ResponseEntity.ok(TokenAuthorizationResponse.inactive());
+        }
+    }
+
+    private boolean hasValidApiKey(HttpServletRequest servletRequest) {
+        return !StringUtils.hasText(expectedApiKey) || expectedApiKey.equals(servletRequest.getHeader(apiKeyHeader));
+    }
 }
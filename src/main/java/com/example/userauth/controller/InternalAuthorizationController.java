@@ -3,9 +3,13 @@ package com.example.userauth.controller;
 import com.example.userauth.entity.Endpoint;
 import com.example.userauth.entity.EndpointPolicy;
 import com.example.userauth.repository.EndpointRepository;
+import com.example.userauth.service.AuthorizationDecisionService;
 import com.example.userauth.service.AuthorizationService;
 import com.example.userauth.service.PolicyEngineService;
+import com.example.userauth.service.abac.AbacContext;
 import com.example.userauth.service.dto.AuthorizationMatrix;
+import com.example.userauth.service.dto.EndpointAccessDecision;
+import com.example.userauth.service.dto.EndpointAccessQuery;
 import com.example.userauth.service.dto.EndpointAuthorizationMetadata;
 import jakarta.validation.constraints.NotBlank;
 import org.slf4j.Logger;
@@ -19,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -36,13 +41,16 @@ public class InternalAuthorizationController {
     private final AuthorizationService authorizationService;
     private final PolicyEngineService policyEngineService;
     private final EndpointRepository endpointRepository;
+    private final AuthorizationDecisionService authorizationDecisionService;
 
     public InternalAuthorizationController(AuthorizationService authorizationService,
                                            PolicyEngineService policyEngineService,
-                                           EndpointRepository endpointRepository) {
+                                           EndpointRepository endpointRepository,
+                                           AuthorizationDecisionService authorizationDecisionService) {
         this.authorizationService = authorizationService;
         this.policyEngineService = policyEngineService;
         this.endpointRepository = endpointRepository;
+        this.authorizationDecisionService = authorizationDecisionService;
     }
 
     /**
@@ -101,6 +109,7 @@ public class InternalAuthorizationController {
     /**
      * Optional policy evaluation endpoint. Downstream callers can supply endpoint id
      * plus the caller's roles to determine whether any linked policy grants access.
+     * ABAC conditions see {@code userId} as {@code user.id} and {@code attributes} as {@code resource.*}.
      */
     @PostMapping("/policies/evaluate")
     public ResponseEntity<Map<String, Object>> evaluateEndpointPolicy(@RequestBody PolicyEvaluationRequest request) {
@@ -108,7 +117,8 @@ public class InternalAuthorizationController {
             throw new IllegalArgumentException("endpointId is required");
         }
         Set<String> roles = request.getRoles() != null ? request.getRoles() : Set.of();
-        boolean allowed = policyEngineService.evaluateEndpointAccess(request.getEndpointId(), roles);
+        boolean allowed = policyEngineService.evaluateEndpointAccess(request.getEndpointId(),
+                AbacContext.forResource(request.getUserId(), roles, request.getAttributes()));
         Map<String, Object> response = Map.of(
                 "endpointId", request.getEndpointId(),
                 "allowed", allowed
@@ -116,12 +126,42 @@ public class InternalAuthorizationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Batch variant for gateways and services that check many endpoints at once. Each check names an
+     * endpoint by {@code endpointId} or {@code method} + {@code path} and a subject by {@code userId}
+     * or {@code roles}; decisions come back in request order and follow the same rules as request
+     * enforcement (required capability, else a granting policy).
+     */
+    @PostMapping("/policies/evaluate-batch")
+    public ResponseEntity<Map<String, Object>> evaluateEndpointPolicies(@RequestBody BatchEvaluationRequest request) {
+        List<EndpointAccessQuery> checks = request.getChecks() != null ? request.getChecks() : List.of();
+        List<EndpointAccessDecision> decisions = authorizationDecisionService.evaluate(checks);
+        return ResponseEntity.ok(Map.of("decisions", decisions));
+    }
+
+    /**
+     * Request body for the batch policy evaluation endpoint.
+     */
+    public static class BatchEvaluationRequest {
+        private List<EndpointAccessQuery> checks;
+
+        public List<EndpointAccessQuery> getChecks() {
+            return checks;
+        }
+
+        public void setChecks(List<EndpointAccessQuery> checks) {
+            this.checks = checks;
+        }
+    }
+
     /**
      * Request body for policy evaluation endpoint.
      */
     public static class PolicyEvaluationRequest {
         private Long endpointId;
         private Set<String> roles;
+        private Long userId;
+        private Map<String, Object> attributes;
 
         public Long getEndpointId() {
             return endpointId;
@@ -138,5 +178,21 @@ public class InternalAuthorizationController {
         public void setRoles(Set<String> roles) {
             this.roles = roles;
         }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public void setUserId(Long userId) {
+            this.userId = userId;
+        }
+
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        public void setAttributes(Map<String, Object> attributes) {
+            this.attributes = attributes;
+        }
     }
 }
@@ -0,0 +1,35 @@
+package com.example.userauth.controller;
+
+import com.example.userauth.security.JwtUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Publishes the public keys used to sign access tokens so downstream services can verify
+ * tokens locally and only call introspection for revocation or permission-version checks.
+ */
+@RestController
+@Tag(name = "JWKS", description = "Public token verification keys")
+public class JwksController {
+
+    private final JwtUtils jwtUtils;
+
+    public JwksController(JwtUtils jwtUtils) {
+        this.jwtUtils = jwtUtils;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "JSON Web Key Set", description = "Public keys for verifying tokens issued by this service")
+    public ResponseEntity<Map<String, Object>> getJwks() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+            .body(Map.of("keys", jwtUtils.getPublicJwks()));
+    }
+}
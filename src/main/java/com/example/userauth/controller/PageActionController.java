@@ -8,6 +8,8 @@ import com.example.userauth.repository.CapabilityRepository;
 import com.example.userauth.repository.EndpointRepository;
 import com.example.userauth.repository.PageActionRepository;
 import com.example.userauth.repository.UIPageRepository;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 
@@ -35,16 +37,19 @@ public class PageActionController {
     private final UIPageRepository uiPageRepository;
     private final CapabilityRepository capabilityRepository;
     private final EndpointRepository endpointRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PageActionController(
             PageActionRepository pageActionRepository,
             UIPageRepository uiPageRepository,
             CapabilityRepository capabilityRepository,
-            EndpointRepository endpointRepository) {
+            EndpointRepository endpointRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.pageActionRepository = pageActionRepository;
         this.uiPageRepository = uiPageRepository;
         this.capabilityRepository = capabilityRepository;
         this.endpointRepository = endpointRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -118,6 +123,7 @@ public class PageActionController {
         action.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
         
         PageAction saved = pageActionRepository.save(action);
+        pageActionChanged(saved.getId());
         return ResponseEntity.ok(convertToResponse(saved));
     }
 
@@ -164,6 +170,7 @@ public class PageActionController {
                     action.setIsActive(request.getIsActive() != null ? request.getIsActive() : action.getIsActive());
                     
                     PageAction updated = pageActionRepository.save(action);
+                    pageActionChanged(id);
                     return ResponseEntity.ok(convertToResponse(updated));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -178,6 +185,7 @@ public class PageActionController {
     public ResponseEntity<Void> deletePageAction(@PathVariable Long id) {
         if (pageActionRepository.existsById(id)) {
             pageActionRepository.deleteById(id);
+            pageActionChanged(id);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -193,6 +201,7 @@ public class PageActionController {
                 .map(action -> {
                     action.setIsActive(!action.getIsActive());
                     PageAction updated = pageActionRepository.save(action);
+                    pageActionChanged(id);
                     return ResponseEntity.ok(convertToResponse(updated));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -212,12 +221,17 @@ public class PageActionController {
                 .map(action -> {
                     action.setDisplayOrder(request.getNewDisplayOrder());
                     PageAction updated = pageActionRepository.save(action);
+                    pageActionChanged(id);
                     return ResponseEntity.ok(convertToResponse(updated));
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // Helper methods
+
+    private void pageActionChanged(Long pageActionId) {
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.PAGE_ACTION, pageActionId));
+    }
     
     private Map<String, Object> convertToResponse(PageAction action) {
         Map<String, Object> response = new HashMap<>();
@@ -7,6 +7,9 @@ import com.example.userauth.repository.CapabilityRepository;
 import com.example.userauth.repository.PolicyCapabilityRepository;
 import com.example.userauth.repository.PolicyRepository;
 import com.example.userauth.repository.RoleRepository;
+import com.example.userauth.service.PolicyEngineService;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import jakarta.servlet.http.HttpServletRequest;
@@ -48,16 +51,22 @@ public class PolicyController {
     private final CapabilityRepository capabilityRepository;
     private final PolicyCapabilityRepository policyCapabilityRepository;
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PolicyEngineService policyEngineService;
 
     public PolicyController(
             PolicyRepository policyRepository,
             CapabilityRepository capabilityRepository,
             PolicyCapabilityRepository policyCapabilityRepository,
-            RoleRepository roleRepository) {
+            RoleRepository roleRepository,
+            ApplicationEventPublisher eventPublisher,
+            PolicyEngineService policyEngineService) {
         this.policyRepository = policyRepository;
         this.capabilityRepository = capabilityRepository;
         this.policyCapabilityRepository = policyCapabilityRepository;
         this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
+        this.policyEngineService = policyEngineService;
     }
 
     /**
@@ -115,10 +124,7 @@ public class PolicyController {
     @PostMapping
     @Transactional
     public ResponseEntity<Map<String, Object>> createPolicy(@RequestBody PolicyRequest request) {
-        // Validate roles in expression if it's RBAC type
-        if ("RBAC".equalsIgnoreCase(request.getType()) || request.getType() == null) {
-            validateRolesInExpression(request.getExpression());
-        }
+        validateExpression(request.getType(), request.getExpression());
 
         Policy policy = new Policy(
                 request.getName(),
@@ -137,10 +143,23 @@ public class PolicyController {
         if (request.getCapabilityIds() != null && !request.getCapabilityIds().isEmpty()) {
             assignCapabilities(saved.getId(), request.getCapabilityIds());
         }
+        policyChanged(saved.getId());
         
         return ResponseEntity.ok(convertToResponse(policyRepository.findById(saved.getId()).get()));
     }
 
+    /**
+     * Validate roles of RBAC expressions, and roles and condition of ABAC expressions
+     */
+    private void validateExpression(String type, String expression) {
+        if ("RBAC".equalsIgnoreCase(type) || type == null) {
+            validateRolesInExpression(expression);
+        } else if ("ABAC".equalsIgnoreCase(type)) {
+            policyEngineService.validateAbacExpression(expression);
+            validateRolesInExpression(expression);
+        }
+    }
+
     /**
      * Validate that all roles in the policy expression exist in the database
      */
@@ -176,10 +195,8 @@ public class PolicyController {
                     if (request.getType() != null) {
                         policy.setType(request.getType());
                     }
-                    // Validate roles in expression if it's RBAC type
-                    if ("RBAC".equalsIgnoreCase(request.getType()) || request.getType() == null) {
-                        validateRolesInExpression(request.getExpression());
-                    }
+                    validateExpression(request.getType() != null ? request.getType() : policy.getType(),
+                            request.getExpression());
                     policy.setExpression(request.getExpression());
                     policy.setIsActive(request.getIsActive());
                     policyRepository.save(policy);
@@ -193,6 +210,7 @@ public class PolicyController {
                             assignCapabilities(id, request.getCapabilityIds());
                         }
                     }
+                    policyChanged(id);
                     
                     return ResponseEntity.ok(convertToResponse(policyRepository.findById(id).get()));
                 })
@@ -210,6 +228,7 @@ public class PolicyController {
             policyCapabilityRepository.deleteByPolicyId(id);
             // Delete policy
             policyRepository.deleteById(id);
+            policyChanged(id);
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.notFound().build();
@@ -224,6 +243,7 @@ public class PolicyController {
                 .map(policy -> {
                     policy.setIsActive(!policy.getIsActive());
                     Policy updated = policyRepository.save(policy);
+                    policyChanged(id);
                     return ResponseEntity.ok(convertToResponse(updated));
                 })
                 .orElse(ResponseEntity.notFound().build());
@@ -266,6 +286,7 @@ public class PolicyController {
         }
         
         assignCapabilities(id, request.getCapabilityIds());
+        policyChanged(id);
         
         return ResponseEntity.ok(convertToResponse(policyRepository.findById(id).get()));
     }
@@ -280,10 +301,15 @@ public class PolicyController {
             @PathVariable Long capabilityId) {
         
         policyCapabilityRepository.deleteByPolicyIdAndCapabilityId(id, capabilityId);
+        policyChanged(id);
         return ResponseEntity.noContent().build();
     }
 
     // Helper methods
+
+    private void policyChanged(Long policyId) {
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.POLICY, policyId));
+    }
     
     private void assignCapabilities(Long policyId, Set<Long> capabilityIds) {
         Policy policy = policyRepository.findById(policyId)
@@ -16,6 +16,8 @@ public class AuthResponse {
     private String tokenId;
     private Integer permissionVersion;
     private Instant expiresAt;
+    private String refreshToken;
+    private Instant refreshExpiresAt;
     
     // Constructors
     public AuthResponse() {}
@@ -124,4 +126,20 @@ public class AuthResponse {
     public void setExpiresAt(Instant expiresAt) {
         this.expiresAt = expiresAt;
     }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public Instant getRefreshExpiresAt() {
+        return refreshExpiresAt;
+    }
+
+    public void setRefreshExpiresAt(Instant refreshExpiresAt) {
+        this.refreshExpiresAt = refreshExpiresAt;
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.userauth.dto.internal;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class TokenAuthorizationRequest {
+
+    @NotBlank
+    private String token;
+
+    @NotBlank
+    private String method;
+
+    @NotBlank
+    private String path;
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.userauth.dto.internal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Introspection result plus the access decision for one request; {@code allowed} is always
+ * {@code false} for inactive tokens.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenAuthorizationResponse extends TokenIntrospectionResponse {
+
+    private boolean allowed;
+    private String reason;
+    private Long endpointId;
+
+    public static TokenAuthorizationResponse inactive() {
+        TokenAuthorizationResponse response = new TokenAuthorizationResponse();
+        response.setActive(false);
+        return response;
+    }
+
+    /**
+     * Copy of the introspection result, ready for the decision to be added.
+     */
+    public static TokenAuthorizationResponse from(TokenIntrospectionResponse introspection) {
+        TokenAuthorizationResponse response = new TokenAuthorizationResponse();
+        response.setActive(introspection.isActive());
+        response.setSubject(introspection.getSubject());
+        response.setUserId(introspection.getUserId());
+        response.setPermissionVersion(introspection.getPermissionVersion());
+        response.setTokenId(introspection.getTokenId());
+        response.setExpiresAt(introspection.getExpiresAt());
+        return response;
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public void setAllowed(boolean allowed) {
+        this.allowed = allowed;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Long getEndpointId() {
+        return endpointId;
+    }
+
+    public void setEndpointId(Long endpointId) {
+        this.endpointId = endpointId;
+    }
+}
@@ -2,11 +2,15 @@ package com.example.userauth.entity;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shared.entityaudit.annotation.EntityAuditEnabled;
 import com.shared.entityaudit.descriptor.AbstractAuditableEntity;
 import com.shared.entityaudit.listener.SharedEntityAuditListener;
@@ -22,6 +26,8 @@ import com.shared.entityaudit.listener.SharedEntityAuditListener;
 @Table(name = "policies")
 public class Policy extends AbstractAuditableEntity<Long> {
 
+    private static final ObjectMapper EXPRESSION_READER = new ObjectMapper();
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,6 +44,15 @@ public class Policy extends AbstractAuditableEntity<Long> {
     @Column(nullable = false, columnDefinition = "JSON")
     private String expression; // JSON expression for policy evaluation
 
+    // Role names from the expression's "roles" array, kept in step by setExpression so role lookups use an index
+    @ElementCollection
+    @CollectionTable(
+            name = "policy_roles",
+            joinColumns = @JoinColumn(name = "policy_id"),
+            indexes = @Index(name = "idx_policy_roles_role_name", columnList = "role_name, policy_id"))
+    @Column(name = "role_name", nullable = false, length = 50)
+    private Set<String> roles = new HashSet<>();
+
     @Column(name = "is_active", nullable = false)
     private Boolean isActive = true;
 
@@ -58,7 +73,7 @@ public class Policy extends AbstractAuditableEntity<Long> {
         this.name = name;
         this.description = description;
         this.type = type;
-        this.expression = expression;
+        setExpression(expression);
         this.isActive = true;
     }
 
@@ -112,6 +127,32 @@ public class Policy extends AbstractAuditableEntity<Long> {
 
     public void setExpression(String expression) {
         this.expression = expression;
+        roles.clear();
+        roles.addAll(rolesIn(expression));
+    }
+
+    @JsonIgnore
+    public Set<String> getRoles() {
+        return Collections.unmodifiableSet(roles);
+    }
+
+    /**
+     * Role names listed in the expression's {@code roles} array; empty if there is none or the expression is not JSON.
+     */
+    private static Set<String> rolesIn(String expression) {
+        if (expression == null) {
+            return Set.of();
+        }
+        try {
+            JsonNode rolesNode = EXPRESSION_READER.readTree(expression).path("roles");
+            Set<String> names = new HashSet<>();
+            if (rolesNode.isArray()) {
+                rolesNode.forEach(role -> names.add(role.asText()));
+            }
+            return names;
+        } catch (JsonProcessingException e) {
+            return Set.of();
+        }
     }
 
     public Boolean getIsActive() {
@@ -10,7 +10,8 @@ import java.time.Instant;
 @Entity
 @Table(name = "revoked_tokens", indexes = {
     @Index(name = "idx_revoked_token_token_id", columnList = "token_id", unique = true),
-    @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at")
+    @Index(name = "idx_revoked_token_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_revoked_token_created_at", columnList = "created_at")
 })
 public class RevokedToken {
 
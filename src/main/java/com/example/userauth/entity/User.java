@@ -14,7 +14,9 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
@@ -26,11 +28,12 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.shared.entityaudit.annotation.EntityAuditEnabled;
 import com.shared.entityaudit.descriptor.AbstractAuditableEntity;
 import com.shared.entityaudit.listener.SharedEntityAuditListener;
+import com.example.userauth.service.UserTokenStateListener;
 
 @Entity
 @Access(AccessType.FIELD)
 @EntityAuditEnabled
-@EntityListeners(SharedEntityAuditListener.class)
+@EntityListeners({SharedEntityAuditListener.class, UserTokenStateListener.class})
 @Table(name = "users")
 public class User extends AbstractAuditableEntity<Long> implements UserDetails {
     
@@ -59,6 +62,10 @@ public class User extends AbstractAuditableEntity<Long> implements UserDetails {
 
     @Column(name = "permission_version", nullable = false)
     private Integer permissionVersion = 1;
+
+    // Tokens issued before this instant are rejected ("log out everywhere")
+    @Column(name = "tokens_valid_after")
+    private Instant tokensValidAfter;
     
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
@@ -276,6 +283,23 @@ public class User extends AbstractAuditableEntity<Long> implements UserDetails {
         this.updatedAt = LocalDateTime.now();
     }
 
+    public Instant getTokensValidAfter() {
+        return tokensValidAfter;
+    }
+
+    public void setTokensValidAfter(Instant tokensValidAfter) {
+        this.tokensValidAfter = tokensValidAfter;
+    }
+
+    /**
+     * Invalidate every token issued up to now. Token iat has second precision, so the epoch is
+     * rounded up to the next second; a token minted later in the same second is rejected as well.
+     */
+    public void invalidateIssuedTokens() {
+        this.tokensValidAfter = Instant.now().truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        this.updatedAt = LocalDateTime.now();
+    }
+
     @Override
     public String entityType() {
         return "USER";
@@ -301,6 +325,7 @@ public class User extends AbstractAuditableEntity<Long> implements UserDetails {
                         .filter(Objects::nonNull)
                         .collect(Collectors.toList()),
                 "permissionVersion", permissionVersion,
+                "tokensValidAfter", tokensValidAfter != null ? tokensValidAfter.toString() : null,
                 "enabled", enabled,
                 "accountNonExpired", accountNonExpired,
                 "accountNonLocked", accountNonLocked,
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,4 +59,22 @@ public interface EndpointPolicyRepository extends JpaRepository<EndpointPolicy,
     void deleteByEndpointIdAndPolicyId(@Param("endpointId") Long endpointId, @Param("policyId") Long policyId);
 
     Optional<EndpointPolicy> findTopByOrderByIdDesc();
+
+    /**
+     * All endpoint-policy links as id pairs, without loading either entity
+     */
+    @Query("SELECT ep.endpoint.id AS endpointId, ep.policy.id AS policyId FROM EndpointPolicy ep")
+    List<EndpointPolicyLink> findAllLinks();
+
+    /**
+     * Endpoint-policy links of the given endpoints as id pairs
+     */
+    @Query("SELECT ep.endpoint.id AS endpointId, ep.policy.id AS policyId FROM EndpointPolicy ep " +
+           "WHERE ep.endpoint.id IN :endpointIds")
+    List<EndpointPolicyLink> findLinksByEndpointIds(@Param("endpointIds") Collection<Long> endpointIds);
+
+    interface EndpointPolicyLink {
+        Long getEndpointId();
+        Long getPolicyId();
+    }
 }
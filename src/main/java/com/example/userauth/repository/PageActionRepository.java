@@ -55,7 +55,8 @@ public interface PageActionRepository extends JpaRepository<PageAction, Long> {
            "  SELECT c.id FROM Capability c " +
            "  JOIN PolicyCapability pc ON pc.capability.id = c.id " +
            "  JOIN Policy p ON p.id = pc.policy.id " +
-           "  WHERE CAST(p.expression AS string) LIKE CONCAT('%', :roleName, '%') " +
+           "  JOIN p.roles r " +
+           "  WHERE r = :roleName " +
            "  AND p.isActive = true " +
            "  AND c.isActive = true" +
            ") " +
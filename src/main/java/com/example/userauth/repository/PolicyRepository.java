@@ -1,11 +1,13 @@
 package com.example.userauth.repository;
 
 import com.example.userauth.entity.Policy;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,10 +29,18 @@ public interface PolicyRepository extends JpaRepository<Policy, Long> {
     List<Policy> findByType(String type);
 
     /**
-     * Find all active policies
+     * Find all active policies, with their roles
      */
+    @EntityGraph(attributePaths = "roles")
     List<Policy> findByIsActiveTrue();
 
+    /**
+     * Find policies by id, with their roles
+     */
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    List<Policy> findAllById(Iterable<Long> ids);
+
     /**
      * Find active policies by type
      */
@@ -43,11 +53,12 @@ public interface PolicyRepository extends JpaRepository<Policy, Long> {
 
     /**
      * Find RBAC policies that apply to a specific role
-     * This searches the JSON expression for the role name
+     * Joins the indexed policy_roles relation, so the role name must match exactly
      */
     @Query("SELECT p FROM Policy p " +
+           "JOIN p.roles r " +
            "WHERE p.type = 'RBAC' " +
-           "AND CAST(p.expression AS string) LIKE CONCAT('%', :roleName, '%') " +
+           "AND r = :roleName " +
            "AND p.isActive = true")
     List<Policy> findRBACPoliciesByRole(@Param("roleName") String roleName);
 
@@ -80,8 +91,9 @@ public interface PolicyRepository extends JpaRepository<Policy, Long> {
     List<PolicyCapabilitySummary> findCapabilityNamesByPolicyIds(@Param("policyIds") Iterable<Long> policyIds);
     
     /**
-     * Find policies linked to a specific endpoint
+     * Find policies linked to a specific endpoint, with their roles
      */
+    @EntityGraph(attributePaths = "roles")
     @Query("SELECT p FROM Policy p " +
            "JOIN EndpointPolicy ep ON ep.policy.id = p.id " +
            "WHERE ep.endpoint.id = :endpointId " +
@@ -90,8 +102,19 @@ public interface PolicyRepository extends JpaRepository<Policy, Long> {
 
     Optional<Policy> findTopByOrderByIdDesc();
 
+    /**
+     * Id and last modification time of every policy, without loading expressions
+     */
+    @Query("SELECT p.id AS policyId, p.updatedAt AS updatedAt FROM Policy p")
+    List<PolicyVersion> findAllVersions();
+
     interface PolicyCapabilitySummary {
         Long getPolicyId();
         String getCapabilityName();
     }
+
+    interface PolicyVersion {
+        Long getPolicyId();
+        LocalDateTime getUpdatedAt();
+    }
 }
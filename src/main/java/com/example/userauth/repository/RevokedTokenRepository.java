@@ -2,8 +2,13 @@ package com.example.userauth.repository;
 
 import com.example.userauth.entity.RevokedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
@@ -12,5 +17,27 @@ public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long
 
     boolean existsByTokenId(String tokenId);
 
-    void deleteByExpiresAtBefore(Instant expiresAt);
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    List<RevokedToken> findByCreatedAtAfter(Instant watermark);
+
+    /**
+     * Deletes at most {@code batchSize} expired rows in its own transaction. Rows locked by another
+     * instance's compactor are skipped rather than waited on.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM revoked_tokens WHERE id IN (SELECT id FROM revoked_tokens WHERE expires_at < :cutoff "
+        + "LIMIT :batchSize FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+
+    /**
+     * Creates upcoming daily partitions and drops the ones whose tokens have all expired.
+     * Only available once scripts/postgres/revoked_tokens_partitioning.sql has been applied.
+     *
+     * @return the number of partitions dropped
+     */
+    @Transactional
+    @Query(value = "SELECT revoked_tokens_maintain_partitions(:daysAhead)", nativeQuery = true)
+    int maintainPartitions(@Param("daysAhead") int daysAhead);
 }
@@ -1,6 +1,7 @@
 package com.example.userauth.repository;
 
 import com.example.userauth.entity.User;
+import com.example.userauth.service.dto.UserTokenState;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,4 +25,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.username = :usernameOrEmail OR u.email = :usernameOrEmail")
     Optional<User> findByUsernameOrEmail(@Param("usernameOrEmail") String usernameOrEmail);
     Optional<User> findTopByOrderByIdDesc();
+
+    // Token state lookup for UserTokenStateRegistry without hydrating the user and its roles
+    @Query("SELECT new com.example.userauth.service.dto.UserTokenState(u.permissionVersion, u.tokensValidAfter, "
+        + "u.enabled, u.accountNonExpired, u.accountNonLocked, u.credentialsNonExpired) FROM User u WHERE u.id = :id")
+    Optional<UserTokenState> findTokenStateById(@Param("id") Long id);
 }
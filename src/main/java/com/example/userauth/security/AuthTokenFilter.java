@@ -1,7 +1,7 @@
 package com.example.userauth.security;
 
 import com.example.userauth.service.TokenBlacklistService;
-import com.example.userauth.service.UserDetailsServiceImpl;
+import com.example.userauth.service.UserTokenStateRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,7 +11,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -32,29 +31,42 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
     
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserPrincipalCache userPrincipalCache;
 
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private UserTokenStateRegistry userTokenStateRegistry;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String jti = jwtUtils.getTokenId(jwt);
-                if (tokenBlacklistService.isTokenRevoked(jti)) {
-                    logger.debug("Rejected request with revoked token id {}", jti);
+            ParsedToken token = jwt != null ? jwtUtils.verifyToken(jwt) : null;
+            if (token != null) {
+                if (tokenBlacklistService.isTokenRevoked(token)) {
+                    logger.debug("Rejected request with revoked token id {}", token.tokenId());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
+                UserTokenStateRegistry.TokenStatus status = userTokenStateRegistry.check(token);
+                if (status != UserTokenStateRegistry.TokenStatus.VALID) {
+                    logger.debug("Rejected request with token {}: {}", token.tokenId(), status);
                     filterChain.doFilter(request, response);
                     return;
                 }
 
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                request.setAttribute(ParsedToken.REQUEST_ATTRIBUTE, token);
+                UserPrincipal principal = userPrincipalCache.get(token);
+                if (principal == null) {
+                    logger.debug("Rejected request with token {}: user {} no longer exists", token.tokenId(), token.userId());
+                    filterChain.doFilter(request, response);
+                    return;
+                }
                 UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
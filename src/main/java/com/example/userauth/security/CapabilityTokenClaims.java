@@ -0,0 +1,97 @@
+package com.example.userauth.security;
+
+import com.example.userauth.entity.User;
+import com.example.userauth.service.AuthorizationService;
+import com.example.userauth.service.CapabilityDictionaryService;
+import com.example.userauth.service.dto.AuthorizationMatrix;
+import com.example.userauth.service.dto.CapabilityDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Optional token mode that embeds the user's effective capabilities as a bitmap ({@code cap})
+ * together with the capability dictionary version it was encoded against ({@code cdv}).
+ * While the dictionary version and the user's permission version are unchanged, endpoint
+ * capability checks can be answered from the token without touching the database.
+ */
+@Component
+public class CapabilityTokenClaims {
+
+    public static final String CLAIM_CAPABILITIES = "cap";
+    public static final String CLAIM_DICTIONARY_VERSION = "cdv";
+
+    private static final Logger logger = LoggerFactory.getLogger(CapabilityTokenClaims.class);
+
+    @Value("${app.jwt.capability-claims.enabled:false}")
+    private boolean enabled;
+
+    private final AuthorizationService authorizationService;
+    private final CapabilityDictionaryService dictionaryService;
+
+    public CapabilityTokenClaims(AuthorizationService authorizationService,
+                                 CapabilityDictionaryService dictionaryService) {
+        this.authorizationService = authorizationService;
+        this.dictionaryService = dictionaryService;
+    }
+
+    /**
+     * Claims to add to a token minted for {@code user}; empty when the mode is disabled or no
+     * capability dictionary has been loaded yet.
+     */
+    public Map<String, Object> claimsFor(User user) {
+        if (!enabled || user.getId() == null) {
+            return Map.of();
+        }
+        CapabilityDictionary dictionary = dictionaryService.current();
+        if (dictionary == CapabilityDictionary.EMPTY) {
+            return Map.of();
+        }
+        AuthorizationMatrix matrix = authorizationService.buildAuthorizationMatrix(user.getId());
+        return Map.of(
+            CLAIM_CAPABILITIES, dictionary.encode(matrix.getCapabilities()),
+            CLAIM_DICTIONARY_VERSION, dictionary.getVersion());
+    }
+
+    /**
+     * Whether the token's bitmap grants any of {@code requiredCapabilities}. The bitmap is only
+     * trusted to allow: {@code false} means the token carries no usable bitmap (absent, stale
+     * dictionary or permission version, malformed) or the bitmap has none of the capabilities, and
+     * the caller must fall back to the authorization matrix.
+     */
+    public boolean grantsAnyCapability(ParsedToken token, Integer currentPermissionVersion, Set<String> requiredCapabilities) {
+        if (!enabled || token == null || token.capabilities() == null) {
+            return false;
+        }
+        if (!Objects.equals(token.permissionVersion(), currentPermissionVersion)) {
+            return false;
+        }
+        CapabilityDictionary dictionary = dictionaryService.current();
+        if (dictionary == CapabilityDictionary.EMPTY
+                || !dictionary.getVersion().equals(token.capabilityDictionaryVersion())) {
+            logger.trace("Token {} capability bitmap encoded for dictionary {}, current is {}",
+                token.tokenId(), token.capabilityDictionaryVersion(), dictionary.getVersion());
+            return false;
+        }
+        BitSet granted;
+        try {
+            granted = CapabilityDictionary.decode(token.capabilities());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Token {} carries a malformed capability bitmap", token.tokenId());
+            return false;
+        }
+        for (String capability : requiredCapabilities) {
+            int id = dictionary.idOf(capability);
+            if (id >= 0 && granted.get(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
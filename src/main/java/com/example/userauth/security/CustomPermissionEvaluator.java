@@ -1,20 +1,41 @@
 package com.example.userauth.security;
 
+import com.example.userauth.entity.User;
+import com.example.userauth.service.AuthorizationMatrixCache;
+import com.example.userauth.service.dto.CapabilitySet;
 import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
 
+/**
+ * Permissions are capability names. For authenticated users they are checked against the user's
+ * cached {@link CapabilitySet}; other principals fall back to {@code PERM_} authorities.
+ */
 @Component
 public class CustomPermissionEvaluator implements PermissionEvaluator {
+
+    private final AuthorizationMatrixCache authorizationMatrixCache;
+
+    public CustomPermissionEvaluator(AuthorizationMatrixCache authorizationMatrixCache) {
+        this.authorizationMatrixCache = authorizationMatrixCache;
+    }
     
     @Override
     public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return false;
         }
-        
+
+        CapabilitySet granted = capabilitiesOf(authentication);
+        if (granted != null) {
+            return granted.contains(permission.toString());
+        }
+        return hasAuthorityPermission(authentication, permission);
+    }
+
+    private boolean hasAuthorityPermission(Authentication authentication, Object permission) {
         String permissionName = "PERM_" + permission.toString();
         return authentication.getAuthorities().stream()
                 .anyMatch(auth -> auth.getAuthority().equals(permissionName));
@@ -32,9 +53,13 @@ public class CustomPermissionEvaluator implements PermissionEvaluator {
         if (authentication == null || !authentication.isAuthenticated()) {
             return false;
         }
-        
+
+        CapabilitySet granted = capabilitiesOf(authentication);
+        if (granted != null) {
+            return granted.intersects(CapabilitySet.of(permissions));
+        }
         for (String permission : permissions) {
-            if (hasPermission(authentication, null, permission)) {
+            if (hasAuthorityPermission(authentication, permission)) {
                 return true;
             }
         }
@@ -48,9 +73,13 @@ public class CustomPermissionEvaluator implements PermissionEvaluator {
         if (authentication == null || !authentication.isAuthenticated()) {
             return false;
         }
-        
+
+        CapabilitySet granted = capabilitiesOf(authentication);
+        if (granted != null) {
+            return granted.containsAll(CapabilitySet.of(permissions));
+        }
         for (String permission : permissions) {
-            if (!hasPermission(authentication, null, permission)) {
+            if (!hasAuthorityPermission(authentication, permission)) {
                 return false;
             }
         }
@@ -85,4 +114,25 @@ public class CustomPermissionEvaluator implements PermissionEvaluator {
         }
         return false;
     }
+
+    /**
+     * Capabilities of the authenticated user, or {@code null} if the principal is not a user.
+     */
+    private CapabilitySet capabilitiesOf(Authentication authentication) {
+        Object principal = authentication.getPrincipal();
+        Long userId = null;
+        if (principal instanceof UserPrincipal user) {
+            userId = user.getId();
+        } else if (principal instanceof User user) {
+            userId = user.getId();
+        }
+        if (userId == null) {
+            return null;
+        }
+        try {
+            return authorizationMatrixCache.get(userId).getCapabilitySet();
+        } catch (RuntimeException e) {
+            return CapabilitySet.EMPTY;
+        }
+    }
 }
@@ -1,10 +1,9 @@
 package com.example.userauth.security;
 
 import com.example.userauth.entity.User;
-import com.example.userauth.service.AuthorizationService;
-import com.example.userauth.service.PolicyEngineService;
-import com.example.userauth.service.dto.AuthorizationMatrix;
-import com.example.userauth.service.dto.EndpointAuthorizationMetadata;
+import com.example.userauth.service.AuthorizationDecisionService;
+import com.example.userauth.service.abac.AbacContext;
+import com.example.userauth.service.dto.EndpointAccessDecision;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,25 +13,22 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
 import java.util.function.Supplier;
 
 /**
  * AuthorizationManager that enforces RBAC policies defined in the service catalog.
- * It reuses the same authorization matrix exposed via /api/me/authorizations.
+ * It reuses the same authorization matrix exposed via /api/me/authorizations; the decision itself
+ * is made by {@link AuthorizationDecisionService#decide}, shared with /internal/auth/authorize.
  */
 @Component
 public class DynamicEndpointAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
 
     private static final Logger logger = LoggerFactory.getLogger(DynamicEndpointAuthorizationManager.class);
 
-    private final AuthorizationService authorizationService;
-    private final PolicyEngineService policyEngineService;
+    private final AuthorizationDecisionService authorizationDecisionService;
 
-    public DynamicEndpointAuthorizationManager(AuthorizationService authorizationService,
-                                               PolicyEngineService policyEngineService) {
-        this.authorizationService = authorizationService;
-        this.policyEngineService = policyEngineService;
+    public DynamicEndpointAuthorizationManager(AuthorizationDecisionService authorizationDecisionService) {
+        this.authorizationDecisionService = authorizationDecisionService;
     }
 
     @Override
@@ -49,21 +45,6 @@ public class DynamicEndpointAuthorizationManager implements AuthorizationManager
             return new AuthorizationDecision(false);
         }
 
-        EndpointAuthorizationMetadata metadata =
-                authorizationService.getEndpointAuthorizationMetadata(method, resolvePath(request));
-
-        if (!metadata.isEndpointFound()) {
-            // Endpoint not cataloged: fail closed so every backend route must be registered with a policy
-            logger.warn("No cataloged endpoint for {} {}, denying access by default", method, request.getRequestURI());
-            return new AuthorizationDecision(false);
-        }
-
-        if (!metadata.hasPolicies()) {
-            logger.warn("Endpoint {} matched for {} {} but no policies assigned. Denying access.",
-                    metadata.getEndpointId(), method, request.getRequestURI());
-            return new AuthorizationDecision(false);
-        }
-
         Long userId = extractUserId(authentication.getPrincipal());
         if (userId == null) {
             logger.warn("Unable to extract user id from principal {} for {} {}, denying",
@@ -71,34 +52,37 @@ public class DynamicEndpointAuthorizationManager implements AuthorizationManager
             return new AuthorizationDecision(false);
         }
 
-        AuthorizationMatrix matrix = authorizationService.buildAuthorizationMatrix(userId);
-
-        Set<String> requiredCapabilities = metadata.getRequiredCapabilities();
-        boolean allowed;
-
-        if (!requiredCapabilities.isEmpty()) {
-            allowed = requiredCapabilities.stream().anyMatch(matrix.getCapabilities()::contains);
-            if (!allowed) {
-                logger.debug("Denied {} {} for user {} - missing capabilities {} (has {})",
-                        method, request.getRequestURI(), userId, requiredCapabilities, matrix.getCapabilities());
-            }
-        } else {
-            // Fallback to policy expression evaluation when no capabilities are mapped
-            allowed = policyEngineService.evaluateEndpointAccess(metadata.getEndpointId(), matrix.getRoles());
-            if (!allowed) {
-                logger.debug("Denied {} {} for user {} - policy expressions not satisfied (roles: {})",
-                        method, request.getRequestURI(), userId, matrix.getRoles());
-            }
-        }
-
-        if (allowed) {
-            logger.trace("Authorized {} {} for user {}", method, request.getRequestURI(), userId);
+        ParsedToken token = (ParsedToken) request.getAttribute(ParsedToken.REQUEST_ATTRIBUTE);
+        EndpointAccessDecision decision = authorizationDecisionService.decide(method, resolvePath(request), userId,
+                extractPermissionVersion(authentication.getPrincipal()), token,
+                roles -> AbacContext.forRequest(userId, roles, request));
+
+        switch (decision.reason()) {
+            case EndpointAccessDecision.NOT_CATALOGED:
+                // Endpoint not cataloged: fail closed so every backend route must be registered with a policy
+                logger.warn("No cataloged endpoint for {} {}, denying access by default", method, request.getRequestURI());
+                break;
+            case EndpointAccessDecision.NO_POLICIES:
+                logger.warn("Endpoint {} matched for {} {} but no policies assigned. Denying access.",
+                        decision.endpointId(), method, request.getRequestURI());
+                break;
+            case EndpointAccessDecision.USER_NOT_FOUND:
+                logger.warn("User {} not found for {} {}, denying", userId, method, request.getRequestURI());
+                break;
+            default:
+                if (decision.allowed()) {
+                    logger.trace("Authorized {} {} for user {} ({})",
+                            method, request.getRequestURI(), userId, decision.reason());
+                }
         }
 
-        return new AuthorizationDecision(allowed);
+        return new AuthorizationDecision(decision.allowed());
     }
 
     private Long extractUserId(Object principal) {
+        if (principal instanceof UserPrincipal user) {
+            return user.getId();
+        }
         if (principal instanceof User user) {
             return user.getId();
         }
@@ -109,6 +93,13 @@ public class DynamicEndpointAuthorizationManager implements AuthorizationManager
         return null;
     }
 
+    private Integer extractPermissionVersion(Object principal) {
+        if (principal instanceof UserPrincipal user) {
+            return user.getPermissionVersion();
+        }
+        return principal instanceof User user ? user.getPermissionVersion() : null;
+    }
+
     private String resolvePath(HttpServletRequest request) {
         String uri = request.getRequestURI();
         String contextPath = request.getContextPath();
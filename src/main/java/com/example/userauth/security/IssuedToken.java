@@ -0,0 +1,8 @@
+package com.example.userauth.security;
+
+/**
+ * A freshly signed JWT together with the claims it was built from, so callers
+ * such as login never need to parse a token they just minted.
+ */
+public record IssuedToken(String token, ParsedToken claims) {
+}
@@ -0,0 +1,65 @@
+package com.example.userauth.security;
+
+import io.jsonwebtoken.security.PublicJwk;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable set of JWT keys indexed by {@code kid}: one primary key that signs new tokens plus
+ * any number of verification-only keys kept around until tokens signed with them expire.
+ */
+public final class JwtKeyRing {
+
+    private final JwtSigningKey primary;
+    private final Map<String, JwtSigningKey> keysById;
+    private final List<PublicJwk<?>> publicJwks;
+
+    public JwtKeyRing(JwtSigningKey primary, Collection<JwtSigningKey> keys) {
+        Objects.requireNonNull(primary, "primary key is required");
+        if (!primary.canSign()) {
+            throw new IllegalStateException("Primary JWT key " + primary.keyId() + " has no signing key");
+        }
+        Map<String, JwtSigningKey> byId = new HashMap<>();
+        byId.put(primary.keyId(), primary);
+        for (JwtSigningKey key : keys) {
+            JwtSigningKey previous = byId.putIfAbsent(key.keyId(), key);
+            if (previous != null && previous != key) {
+                throw new IllegalStateException("Duplicate JWT key id " + key.keyId());
+            }
+        }
+        this.primary = primary;
+        this.keysById = Map.copyOf(byId);
+        this.publicJwks = keysById.values().stream()
+            .map(JwtSigningKey::publicJwk)
+            .filter(Objects::nonNull)
+            .<PublicJwk<?>>map(jwk -> jwk)
+            .toList();
+    }
+
+    public static JwtKeyRing of(JwtSigningKey primary) {
+        return new JwtKeyRing(primary, List.of());
+    }
+
+    public JwtSigningKey primary() {
+        return primary;
+    }
+
+    /**
+     * @return the key for {@code keyId}, or {@code null} if the ring does not contain it
+     */
+    public JwtSigningKey find(String keyId) {
+        return keysById.get(keyId);
+    }
+
+    public Collection<String> keyIds() {
+        return keysById.keySet();
+    }
+
+    public List<PublicJwk<?>> publicJwks() {
+        return publicJwks;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.userauth.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.MacAlgorithm;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import org.springframework.util.StringUtils;
+
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * Pre-decoded JWT key material for one {@code kid}.
+ * HMAC keys use the same secret to sign and verify; asymmetric keys (RS256, ES256, EdDSA, ...)
+ * sign with the private key and publish the public key as a JWK. {@code signingKey} is
+ * {@code null} for keys that may only verify.
+ */
+public record JwtSigningKey(
+        String keyId,
+        SecureDigestAlgorithm<?, ?> algorithm,
+        Key signingKey,
+        Key verificationKey,
+        PublicJwk<?> publicJwk) {
+
+    public String algorithmId() {
+        return algorithm.getId();
+    }
+
+    public boolean canSign() {
+        return signingKey != null;
+    }
+
+    /**
+     * Build an HMAC key from a hex, Base64 or raw secret (tried in that order).
+     */
+    public static JwtSigningKey hmac(String keyId, String algorithmId, String secret) {
+        if (!StringUtils.hasText(secret)) {
+            throw new IllegalStateException("JWT secret is not configured");
+        }
+        SecureDigestAlgorithm<?, ?> algorithm = resolveAlgorithm(algorithmId);
+        if (!(algorithm instanceof MacAlgorithm)) {
+            throw new IllegalArgumentException("Algorithm " + algorithmId + " is not an HMAC algorithm");
+        }
+        Key key = decodeSecret(secret);
+        return new JwtSigningKey(keyId, algorithm, key, key, null);
+    }
+
+    /**
+     * Build an asymmetric key from PEM-encoded PKCS#8 private and X.509 public keys.
+     * The private key may be omitted for verification-only keys.
+     */
+    public static JwtSigningKey asymmetric(String keyId, String algorithmId, String privateKeyPem, String publicKeyPem) {
+        SecureDigestAlgorithm<?, ?> algorithm = resolveAlgorithm(algorithmId);
+        if (algorithm instanceof MacAlgorithm) {
+            throw new IllegalArgumentException("Algorithm " + algorithmId + " is not an asymmetric algorithm");
+        }
+        if (!StringUtils.hasText(publicKeyPem)) {
+            throw new IllegalStateException("A public key is required for JWT algorithm " + algorithmId);
+        }
+        String keyFamily = keyFamily(algorithmId);
+        PublicKey publicKey = readPublicKey(keyFamily, publicKeyPem);
+        PrivateKey privateKey = StringUtils.hasText(privateKeyPem) ? readPrivateKey(keyFamily, privateKeyPem) : null;
+
+        PublicJwk<?> jwk = Jwks.builder()
+            .key(publicKey)
+            .algorithm(algorithmId)
+            .publicKeyUse("sig")
+            .idFromThumbprint()
+            .build();
+        String kid = StringUtils.hasText(keyId) ? keyId : jwk.getId();
+        if (!kid.equals(jwk.getId())) {
+            jwk = Jwks.builder().key(publicKey).algorithm(algorithmId).publicKeyUse("sig").id(kid).build();
+        }
+        return new JwtSigningKey(kid, algorithm, privateKey, publicKey, jwk);
+    }
+
+    static SecureDigestAlgorithm<?, ?> resolveAlgorithm(String algorithmId) {
+        if (!StringUtils.hasText(algorithmId) || "none".equalsIgnoreCase(algorithmId)) {
+            throw new IllegalArgumentException("A JWT signature algorithm is required");
+        }
+        return Jwts.SIG.get().forKey(algorithmId);
+    }
+
+    private static String keyFamily(String algorithmId) {
+        if (algorithmId.startsWith("RS") || algorithmId.startsWith("PS")) {
+            return "RSA";
+        }
+        if (algorithmId.startsWith("ES")) {
+            return "EC";
+        }
+        if ("EdDSA".equals(algorithmId)) {
+            return "EdDSA";
+        }
+        throw new IllegalArgumentException("Unsupported JWT algorithm " + algorithmId);
+    }
+
+    private static PublicKey readPublicKey(String keyFamily, String pem) {
+        try {
+            return KeyFactory.getInstance(keyFamily).generatePublic(new X509EncodedKeySpec(decodePem(pem)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to read " + keyFamily + " public key: " + e.getMessage(), e);
+        }
+    }
+
+    private static PrivateKey readPrivateKey(String keyFamily, String pem) {
+        try {
+            return KeyFactory.getInstance(keyFamily).generatePrivate(new PKCS8EncodedKeySpec(decodePem(pem)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to read " + keyFamily + " private key: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] decodePem(String pem) {
+        String body = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+
+    private static Key decodeSecret(String secret) {
+        try {
+            return Keys.hmacShaKeyFor(hexStringToByteArray(secret));
+        } catch (Exception e) {
+            try {
+                return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+            } catch (Exception ex) {
+                return Keys.hmacShaKeyFor(secret.getBytes());
+            }
+        }
+    }
+
+    private static byte[] hexStringToByteArray(String hex) {
+        int len = hex.length();
+        byte[] data = new byte[len / 2];
+        for (int i = 0; i < len; i += 2) {
+            data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
+                + Character.digit(hex.charAt(i + 1), 16));
+        }
+        return data;
+    }
+}
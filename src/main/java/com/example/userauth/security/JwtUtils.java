@@ -3,23 +3,31 @@ package com.example.userauth.security;
 import com.example.userauth.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.InvalidKeyException;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
 import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 
-import javax.crypto.SecretKey;
+import java.security.Key;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Component
@@ -27,12 +35,10 @@ public class JwtUtils {
 
     public static final String CLAIM_PERMISSION_VERSION = "pv";
     public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_SESSION_ID = "sid";
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${app.jwt.secret:mySecretKey}")
-    private String jwtSecret;
-
     @Value("${app.jwt.expiration:86400}")
     private int jwtExpirationSeconds;
 
@@ -42,29 +48,84 @@ public class JwtUtils {
     @Value("${app.jwt.audience:payment-reconciliation-api}")
     private String jwtAudience;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private JwtKeyRingManager keyRingManager;
+
+    @Autowired
+    private CapabilityTokenClaims capabilityTokenClaims;
+
+    // Built once; keys are resolved per token from the current key ring, so key rotation needs no rebuild.
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void initParser() {
+        this.jwtParser = Jwts.parser()
+            .keyLocator(new KeyIdLocator())
+            .requireIssuer(jwtIssuer)
+            .requireAudience(jwtAudience)
+            .build();
+    }
+
+    /**
+     * Public keys that verify tokens issued by this service, in JWK form.
+     * HMAC keys are never published.
+     */
+    public List<PublicJwk<?>> getPublicJwks() {
+        return keyRingManager.current().publicJwks();
+    }
+
     /**
      * Generate a signed JWT embedding user id, permission version, and token id (jti).
      */
     public String generateJwtToken(Authentication authentication) {
-        User userPrincipal = (User) authentication.getPrincipal();
-        Instant now = Instant.now();
+        return issueToken(authentication).token();
+    }
+
+    /**
+     * Sign a new JWT for the authenticated user and return it together with its claims.
+     */
+    public IssuedToken issueToken(Authentication authentication) {
+        return issueToken((User) authentication.getPrincipal(), null);
+    }
+
+    /**
+     * Sign a new JWT for {@code userPrincipal}. {@code sessionId} ties the token to a refresh-token
+     * family so logout can end the whole session; it may be {@code null}.
+     */
+    public IssuedToken issueToken(User userPrincipal, String sessionId) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
         Instant expiry = now.plus(jwtExpirationSeconds, ChronoUnit.SECONDS);
+        String tokenId = UUID.randomUUID().toString();
 
         Integer permissionVersion = userPrincipal.getPermissionVersion() != null
             ? userPrincipal.getPermissionVersion()
             : 1;
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
             .issuer(jwtIssuer)
             .subject(userPrincipal.getUsername())
             .audience().add(jwtAudience).and()
-            .id(UUID.randomUUID().toString())
+            .id(tokenId)
             .issuedAt(Date.from(now))
             .expiration(Date.from(expiry))
             .claim(CLAIM_USER_ID, userPrincipal.getId())
-            .claim(CLAIM_PERMISSION_VERSION, permissionVersion)
-            .signWith(getSigningKey(), Jwts.SIG.HS256)
-            .compact();
+            .claim(CLAIM_PERMISSION_VERSION, permissionVersion);
+        if (sessionId != null) {
+            builder.claim(CLAIM_SESSION_ID, sessionId);
+        }
+
+        Map<String, Object> capabilityClaims = capabilityTokenClaims.claimsFor(userPrincipal);
+        builder.claims(capabilityClaims);
+
+        String token = sign(builder);
+
+        return new IssuedToken(token, new ParsedToken(
+            userPrincipal.getUsername(), userPrincipal.getId(), permissionVersion, tokenId, now, expiry, sessionId,
+            (String) capabilityClaims.get(CapabilityTokenClaims.CLAIM_CAPABILITIES),
+            (String) capabilityClaims.get(CapabilityTokenClaims.CLAIM_DICTIONARY_VERSION)));
     }
 
     /**
@@ -74,30 +135,54 @@ public class JwtUtils {
     public String generateTokenFromUsername(String username) {
         logger.warn("generateTokenFromUsername(String) produces a token without user context and should be avoided.");
         Instant now = Instant.now();
-        return Jwts.builder()
+        return sign(Jwts.builder()
             .issuer(jwtIssuer)
             .subject(username)
             .audience().add(jwtAudience).and()
             .id(UUID.randomUUID().toString())
             .issuedAt(Date.from(now))
-            .expiration(Date.from(now.plus(jwtExpirationSeconds, ChronoUnit.SECONDS)))
-            .signWith(getSigningKey(), Jwts.SIG.HS256)
-            .compact();
+            .expiration(Date.from(now.plus(jwtExpirationSeconds, ChronoUnit.SECONDS))));
     }
 
     public Claims parseClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(getSigningKey())
-            .requireIssuer(jwtIssuer)
-            .requireAudience(jwtAudience)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Verify the token once and return its claims as an immutable {@link ParsedToken}.
+     * Tokens seen before are served from the {@link VerifiedTokenCache} until they expire.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public ParsedToken parseToken(String token) {
+        return verifiedTokenCache.get(token, raw -> ParsedToken.from(parseClaims(raw)));
+    }
+
+    /**
+     * Same as {@link #parseToken(String)} but logs the failure and returns {@code null}
+     * for invalid tokens, mirroring {@link #validateJwtToken(String)}.
+     */
+    public ParsedToken verifyToken(String authToken) {
+        try {
+            return parseToken(authToken);
+        } catch (SecurityException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
+        } catch (MalformedJwtException e) {
+            logger.error("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            logger.error("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            logger.error("JWT claims string is empty: {}", e.getMessage());
+        }
+        return null;
     }
 
     public String getUserNameFromJwtToken(String token) {
         try {
-            return parseClaims(token).getSubject();
+            return parseToken(token).subject();
         } catch (Exception e) {
             logger.error("Error extracting username from JWT: {}", e.getMessage());
             return null;
@@ -106,7 +191,7 @@ public class JwtUtils {
 
     public Integer getPermissionVersionFromToken(String token) {
         try {
-            return parseClaims(token).get(CLAIM_PERMISSION_VERSION, Integer.class);
+            return parseToken(token).permissionVersion();
         } catch (Exception e) {
             logger.error("Cannot get permission version from JWT token: {}", e.getMessage());
             return null;
@@ -115,7 +200,7 @@ public class JwtUtils {
 
     public Long getUserIdFromToken(String token) {
         try {
-            return parseClaims(token).get(CLAIM_USER_ID, Long.class);
+            return parseToken(token).userId();
         } catch (Exception e) {
             logger.error("Cannot get user id from JWT token: {}", e.getMessage());
             return null;
@@ -124,7 +209,7 @@ public class JwtUtils {
 
     public String getTokenId(String token) {
         try {
-            return parseClaims(token).getId();
+            return parseToken(token).tokenId();
         } catch (Exception e) {
             logger.error("Cannot get token id from JWT token: {}", e.getMessage());
             return null;
@@ -133,8 +218,7 @@ public class JwtUtils {
 
     public Instant getExpirationInstant(String token) {
         try {
-            Date expiration = parseClaims(token).getExpiration();
-            return expiration != null ? expiration.toInstant() : null;
+            return parseToken(token).expiresAt();
         } catch (Exception e) {
             logger.error("Cannot get expiration from JWT token: {}", e.getMessage());
             return null;
@@ -142,29 +226,16 @@ public class JwtUtils {
     }
 
     public boolean validateJwtToken(String authToken) {
-        try {
-            parseClaims(authToken);
-            return true;
-        } catch (SecurityException e) {
-            logger.error("Invalid JWT signature: {}", e.getMessage());
-        } catch (MalformedJwtException e) {
-            logger.error("Invalid JWT token: {}", e.getMessage());
-        } catch (ExpiredJwtException e) {
-            logger.error("JWT token is expired: {}", e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            logger.error("JWT token is unsupported: {}", e.getMessage());
-        } catch (IllegalArgumentException e) {
-            logger.error("JWT claims string is empty: {}", e.getMessage());
-        }
-        return false;
+        return verifyToken(authToken) != null;
     }
 
     public boolean validateJwtTokenWithPermissionVersion(String authToken, Integer currentPermissionVersion) {
-        if (!validateJwtToken(authToken)) {
+        ParsedToken token = verifyToken(authToken);
+        if (token == null) {
             return false;
         }
 
-        Integer tokenPv = getPermissionVersionFromToken(authToken);
+        Integer tokenPv = token.permissionVersion();
         if (tokenPv == null || currentPermissionVersion == null) {
             logger.warn("Permission version missing in token or database");
             return false;
@@ -179,31 +250,33 @@ public class JwtUtils {
         return true;
     }
 
-    private SecretKey getSigningKey() {
-        if (!StringUtils.hasText(jwtSecret)) {
-            throw new IllegalStateException("JWT secret is not configured");
-        }
-
-        try {
-            byte[] keyBytes = hexStringToByteArray(jwtSecret);
-            return Keys.hmacShaKeyFor(keyBytes);
-        } catch (Exception e) {
-            try {
-                byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-                return Keys.hmacShaKeyFor(keyBytes);
-            } catch (Exception ex) {
-                return Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            }
-        }
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private String sign(JwtBuilder builder) {
+        JwtSigningKey signingKey = keyRingManager.current().primary();
+        return builder
+            .header().keyId(signingKey.keyId()).and()
+            .signWith(signingKey.signingKey(), (SecureDigestAlgorithm) signingKey.algorithm())
+            .compact();
     }
 
-    private byte[] hexStringToByteArray(String hex) {
-        int len = hex.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
-                + Character.digit(hex.charAt(i + 1), 16));
+    /**
+     * Resolves the verification key with a single lookup by the {@code kid} header. Tokens issued
+     * before key ids were introduced carry no {@code kid} and are verified with the primary key.
+     */
+    private final class KeyIdLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            JwtKeyRing keyRing = keyRingManager.current();
+            String keyId = header.getKeyId();
+            JwtSigningKey key = keyId != null ? keyRing.find(keyId) : keyRing.primary();
+            if (key == null) {
+                throw new InvalidKeyException("Unknown JWT key id: " + keyId);
+            }
+            if (!key.algorithmId().equals(header.getAlgorithm())) {
+                throw new InvalidKeyException("JWT algorithm " + header.getAlgorithm() + " does not match key " + key.keyId());
+            }
+            return key.verificationKey();
         }
-        return data;
     }
 }
@@ -0,0 +1,49 @@
+package com.example.userauth.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Immutable view of a JWT whose signature, issuer and audience have already been verified.
+ * Produced once per raw token by {@link JwtUtils#parseToken(String)} and passed along instead of re-parsing.
+ * {@code sessionId} is the refresh-token family the token was issued for, if any.
+ * {@code capabilities} and {@code capabilityDictionaryVersion} are only present when
+ * {@link CapabilityTokenClaims} is enabled.
+ */
+public record ParsedToken(
+        String subject,
+        Long userId,
+        Integer permissionVersion,
+        String tokenId,
+        Instant issuedAt,
+        Instant expiresAt,
+        String sessionId,
+        String capabilities,
+        String capabilityDictionaryVersion) {
+
+    /** Request attribute under which the authentication filter exposes the verified token. */
+    public static final String REQUEST_ATTRIBUTE = ParsedToken.class.getName();
+
+    static ParsedToken from(Claims claims) {
+        return new ParsedToken(
+                claims.getSubject(),
+                claims.get(JwtUtils.CLAIM_USER_ID, Long.class),
+                claims.get(JwtUtils.CLAIM_PERMISSION_VERSION, Integer.class),
+                claims.getId(),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims.get(JwtUtils.CLAIM_SESSION_ID, String.class),
+                claims.get(CapabilityTokenClaims.CLAIM_CAPABILITIES, String.class),
+                claims.get(CapabilityTokenClaims.CLAIM_DICTIONARY_VERSION, String.class));
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.userauth.security;
+
+import com.example.userauth.repository.UserRepository;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import com.example.userauth.service.event.UserStateChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link UserPrincipal} snapshots keyed by user id.
+ * A cached snapshot is used only while its permission version matches the token's; otherwise the
+ * user is loaded once (concurrent requests for the same user wait for that load) and the snapshot
+ * replaced. Saved users, users named in a committed {@link AuthorizationChangeEvent} and users saved
+ * on other instances are evicted. Exposed as the {@code security.principals} cache metrics.
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Value("${app.jwt.principal-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    /** Upper bound on staleness for changes missed while the invalidation bus is unavailable. */
+    @Value("${app.jwt.principal-cache.ttl-ms:3600000}")
+    private long ttlMillis;
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Long, UserPrincipal> cache;
+
+    public UserPrincipalCache(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofMillis(ttlMillis))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "security.principals");
+    }
+
+    /**
+     * Principal for the token's user at the token's permission version, or {@code null} if the user no longer exists.
+     */
+    public UserPrincipal get(ParsedToken token) {
+        Long userId = token.userId();
+        if (userId == null) {
+            return null;
+        }
+        Integer permissionVersion = token.permissionVersion();
+        UserPrincipal cached = cache.getIfPresent(userId);
+        if (cached != null && Objects.equals(cached.getPermissionVersion(), permissionVersion)) {
+            return cached;
+        }
+        return cache.asMap().compute(userId, (id, existing) ->
+            existing != null && Objects.equals(existing.getPermissionVersion(), permissionVersion)
+                ? existing
+                : userRepository.findById(id).map(UserPrincipal::from).orElse(null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        if (event.type() == AuthorizationChangeEvent.Type.USER) {
+            invalidate(event.ids());
+        }
+    }
+
+    @EventListener
+    public void onRemoteUserStateChange(UserStateChangedEvent event) {
+        if (event.remote()) {
+            invalidate(event.userIds());
+        }
+    }
+
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        cache.invalidateAll();
+    }
+
+    private void invalidate(Set<Long> userIds) {
+        if (userIds.isEmpty()) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateAll(userIds);
+        }
+    }
+
+    public void evictAfterCommit(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.userauth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of already verified tokens so repeated requests carrying the same bearer token
+ * skip signature verification and claim decoding.
+ * Entries are keyed by a SHA-256 digest of the raw token (the token itself is never retained)
+ * and expire at the token's {@code exp}. Exposed as the {@code jwt.verified-tokens} cache metrics.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    @Value("${app.jwt.verified-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.jwt.verified-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, ParsedToken> cache;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            logger.info("Verified token cache disabled; every request verifies the JWT signature");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new UntilTokenExpiry())
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    /**
+     * Return the cached verification result for the raw token, or run the verifier and cache its result.
+     * Verification failures propagate and are never cached.
+     */
+    public ParsedToken get(String rawToken, Function<String, ParsedToken> verifier) {
+        if (cache == null || rawToken == null || rawToken.isEmpty()) {
+            return verifier.apply(rawToken);
+        }
+        return cache.get(digest(rawToken), key -> verifier.apply(rawToken));
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public static String digest(String rawToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, ParsedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, ParsedToken token, long currentTime) {
+            if (token.expiresAt() == null) {
+                return 0L;
+            }
+            return Math.max(0L, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ParsedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, ParsedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -8,7 +8,11 @@ import com.example.userauth.entity.User;
 import com.example.userauth.entity.UserRole;
 import com.example.userauth.repository.UserRepository;
 import com.example.userauth.repository.RoleRepository;
+import com.example.userauth.security.IssuedToken;
 import com.example.userauth.security.JwtUtils;
+import com.example.userauth.security.ParsedToken;
+import com.example.userauth.security.UserPrincipal;
+import com.example.userauth.service.RefreshTokenService.IssuedRefreshToken;
 import com.example.userauth.dao.UserQueryDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +65,9 @@ public class AuthService {
 
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
     
     public AuthResponse login(LoginRequest loginRequest) {
         logger.info("Attempting login for user: {}", loginRequest.getUsername());
@@ -75,8 +82,9 @@ public class AuthService {
         
         User user = (User) authentication.getPrincipal();
         
-        // Generate JWT token with user's current permission version (auto-sourced from User entity)
-        String jwt = jwtUtils.generateJwtToken(authentication);
+        // Start a refresh-token family and bind the access token (with the user's current permission version) to it
+        IssuedRefreshToken refreshToken = refreshTokenService.issue(user.getId());
+        IssuedToken issued = jwtUtils.issueToken(user, refreshToken.familyId());
         
         // Update last login
         user.setLastLogin(LocalDateTime.now());
@@ -84,17 +92,45 @@ public class AuthService {
         
         logger.info("User {} logged in successfully", user.getUsername());
         
-        return new AuthResponse(
-            jwt,
+        return buildAuthResponse(user, issued, refreshToken);
+    }
+
+    /**
+     * Exchange a refresh token for a new access token and a new refresh token (rotation).
+     * A rejection that revoked the token family (reuse, inactive account) commits so the revocation
+     * is kept; any other failure rolls the rotation back so the client can retry with the same token.
+     */
+    @Transactional(noRollbackFor = RefreshTokenRevokedException.class)
+    public AuthResponse refresh(String rawRefreshToken) {
+        IssuedRefreshToken refreshToken = refreshTokenService.rotate(rawRefreshToken);
+
+        User user = userRepository.findById(refreshToken.userId())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.isEnabled() || !user.isAccountNonLocked() || !user.isAccountNonExpired()) {
+            refreshTokenService.revokeFamily(refreshToken.familyId());
+            throw new RefreshTokenRevokedException("User account is not active");
+        }
+
+        IssuedToken issued = jwtUtils.issueToken(user, refreshToken.familyId());
+        logger.debug("Refreshed access token for user {}", user.getUsername());
+        return buildAuthResponse(user, issued, refreshToken);
+    }
+
+    private AuthResponse buildAuthResponse(User user, IssuedToken issued, IssuedRefreshToken refreshToken) {
+        AuthResponse response = new AuthResponse(
+            issued.token(),
             user.getId(),
             user.getUsername(),
             user.getEmail(),
             user.getFullName(),
             user.getRole(),
-            jwtUtils.getTokenId(jwt),
-            user.getPermissionVersion(),
-            jwtUtils.getExpirationInstant(jwt)
+            issued.claims().tokenId(),
+            issued.claims().permissionVersion(),
+            issued.claims().expiresAt()
         );
+        response.setRefreshToken(refreshToken.token());
+        response.setRefreshExpiresAt(refreshToken.expiresAt());
+        return response;
     }
 
     public void logout(String rawToken) {
@@ -102,13 +138,14 @@ public class AuthService {
             throw new IllegalArgumentException("JWT token is required for logout");
         }
 
-        if (!jwtUtils.validateJwtToken(rawToken)) {
+        ParsedToken token = jwtUtils.verifyToken(rawToken);
+        if (token == null) {
             throw new RuntimeException("Invalid or expired JWT token");
         }
 
-        String tokenId = jwtUtils.getTokenId(rawToken);
-        Instant expiresAt = jwtUtils.getExpirationInstant(rawToken);
-        Long userId = jwtUtils.getUserIdFromToken(rawToken);
+        String tokenId = token.tokenId();
+        Instant expiresAt = token.expiresAt();
+        Long userId = token.userId();
 
         if (tokenId == null) {
             throw new RuntimeException("Unable to extract token identifier");
@@ -119,6 +156,7 @@ public class AuthService {
         }
 
         tokenBlacklistService.revokeToken(tokenId, userId, expiresAt);
+        refreshTokenService.revokeFamily(token.sessionId());
         SecurityContextHolder.clearContext();
         logger.info("Token {} revoked successfully for logout", tokenId);
     }
@@ -155,19 +193,10 @@ public class AuthService {
         );
         
         // Generate JWT token with user's permission version (auto-sourced from User entity)
-        String jwt = jwtUtils.generateJwtToken(authentication);
+        IssuedRefreshToken refreshToken = refreshTokenService.issue(user.getId());
+        IssuedToken issued = jwtUtils.issueToken((User) authentication.getPrincipal(), refreshToken.familyId());
         
-        return new AuthResponse(
-            jwt,
-            user.getId(),
-            user.getUsername(),
-            user.getEmail(),
-            user.getFullName(),
-            user.getRole(),
-            jwtUtils.getTokenId(jwt),
-            user.getPermissionVersion(),
-            jwtUtils.getExpirationInstant(jwt)
-        );
+        return buildAuthResponse(user, issued, refreshToken);
     }
     
     public Optional<User> getCurrentUser() {
@@ -175,6 +204,9 @@ public class AuthService {
         if (authentication != null && authentication.getPrincipal() instanceof User) {
             return Optional.of((User) authentication.getPrincipal());
         }
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return userRepository.findById(principal.getId());
+        }
         return Optional.empty();
     }
     
@@ -235,6 +267,10 @@ public class AuthService {
         if (previousStatus != enabled) {
             user.incrementPermissionVersion();
         }
+        if (previousStatus && !enabled) {
+            user.invalidateIssuedTokens();
+            refreshTokenService.revokeAllForUser(userId);
+        }
         userRepository.save(user);
         logger.info("User {} status updated to: {}", user.getUsername(), enabled ? "enabled" : "disabled");
     }
@@ -253,6 +289,21 @@ public class AuthService {
         logger.info("User {} permissions updated", user.getUsername());
     }
 
+    /**
+     * Log the user out everywhere: every access token issued so far is rejected by its {@code iat}
+     * and every refresh-token family is revoked, without writing a row per token.
+     */
+    public void revokeAllSessions(Long userId) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        user.invalidateIssuedTokens();
+        userRepository.save(user);
+        refreshTokenService.revokeAllForUser(userId);
+
+        logger.info("All sessions revoked for user {}", user.getUsername());
+    }
+
     public RoleUpdateResult updateUserRoles(Long userId, Set<Long> roleIds) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new RuntimeException("User not found"));
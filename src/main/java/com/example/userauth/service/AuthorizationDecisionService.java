@@ -0,0 +1,298 @@
+package com.example.userauth.service;
+
+import com.example.userauth.security.CapabilityTokenClaims;
+import com.example.userauth.security.ParsedToken;
+import com.example.userauth.service.abac.AbacContext;
+import com.example.userauth.service.dto.AuthorizationMatrix;
+import com.example.userauth.service.dto.CapabilitySet;
+import com.example.userauth.service.dto.EndpointAccessDecision;
+import com.example.userauth.service.dto.EndpointAccessQuery;
+import com.example.userauth.service.dto.EndpointAuthorizationMetadata;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decides endpoint access: a capability required by the endpoint, or else a policy (including ABAC
+ * conditions) that grants access.
+ * <p>
+ * {@link #decide} is the decision {@link com.example.userauth.security.DynamicEndpointAuthorizationManager}
+ * enforces and {@code /internal/auth/authorize} returns. {@link #evaluate} answers batches of checks for
+ * downstream services with the same rules.
+ * <p>
+ * Everything is answered from the endpoint snapshot, the matrix cache and the compiled policies.
+ * Each distinct user's matrix and each distinct role set's capabilities are resolved once per batch.
+ * Batches of at least {@code app.authorization.batch.parallel-threshold} checks are split across
+ * {@code app.authorization.batch.parallelism} threads.
+ */
+@Service
+public class AuthorizationDecisionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthorizationDecisionService.class);
+
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    @Value("${app.authorization.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Value("${app.authorization.batch.parallel-threshold:64}")
+    private int parallelThreshold;
+
+    private final AuthorizationService authorizationService;
+    private final EndpointAuthorizationCatalog endpointAuthorizationCatalog;
+    private final AuthorizationMatrixCache authorizationMatrixCache;
+    private final RoleCapabilityIndex roleCapabilityIndex;
+    private final PolicyEngineService policyEngineService;
+    private final CapabilityTokenClaims capabilityTokenClaims;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public AuthorizationDecisionService(AuthorizationService authorizationService,
+                                        EndpointAuthorizationCatalog endpointAuthorizationCatalog,
+                                        AuthorizationMatrixCache authorizationMatrixCache,
+                                        RoleCapabilityIndex roleCapabilityIndex,
+                                        PolicyEngineService policyEngineService,
+                                        CapabilityTokenClaims capabilityTokenClaims,
+                                        @Value("${app.authorization.batch.parallelism:0}") int parallelism) {
+        this.authorizationService = authorizationService;
+        this.endpointAuthorizationCatalog = endpointAuthorizationCatalog;
+        this.authorizationMatrixCache = authorizationMatrixCache;
+        this.roleCapabilityIndex = roleCapabilityIndex;
+        this.policyEngineService = policyEngineService;
+        this.capabilityTokenClaims = capabilityTokenClaims;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "authz-batch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Decide a request by an authenticated user.
+     *
+     * @param permissionVersion the user's current permission version; the token's capability bitmap
+     *                          is only used while it matches
+     * @param token             the parsed bearer token, or {@code null}
+     * @param context           builds the ABAC context from the user's roles, if a policy needs it
+     */
+    public EndpointAccessDecision decide(String method, String path, Long userId, Integer permissionVersion,
+                                         ParsedToken token, Function<Set<String>, AbacContext> context) {
+        EndpointAuthorizationMetadata metadata = authorizationService.getEndpointAuthorizationMetadata(method, path);
+        if (!metadata.isEndpointFound()) {
+            return new EndpointAccessDecision(null, false, EndpointAccessDecision.NOT_CATALOGED);
+        }
+        Long endpointId = metadata.getEndpointId();
+        if (!metadata.hasPolicies()) {
+            return new EndpointAccessDecision(endpointId, false, EndpointAccessDecision.NO_POLICIES);
+        }
+
+        Set<String> requiredCapabilities = metadata.getRequiredCapabilities();
+        if (requiredCapabilities.isEmpty()) {
+            // Fallback to policy expression evaluation when no capabilities are mapped
+            AuthorizationMatrix matrix = matrixOf(userId);
+            if (matrix == null) {
+                return new EndpointAccessDecision(endpointId, false, EndpointAccessDecision.USER_NOT_FOUND);
+            }
+            boolean allowed = policyEngineService.evaluateEndpointAccess(endpointId, context.apply(matrix.getRoles()));
+            if (!allowed) {
+                logger.debug("Denied {} {} for user {} - policy expressions not satisfied (roles: {})",
+                        method, path, userId, matrix.getRoles());
+            }
+            return new EndpointAccessDecision(endpointId, allowed,
+                    allowed ? EndpointAccessDecision.POLICY : EndpointAccessDecision.DENIED);
+        }
+
+        // The token's capability bitmap can only allow; a miss falls through to the matrix
+        if (capabilityTokenClaims.grantsAnyCapability(token, permissionVersion, requiredCapabilities)) {
+            return new EndpointAccessDecision(endpointId, true, EndpointAccessDecision.CAPABILITY);
+        }
+        AuthorizationMatrix matrix = matrixOf(userId);
+        if (matrix == null) {
+            return new EndpointAccessDecision(endpointId, false, EndpointAccessDecision.USER_NOT_FOUND);
+        }
+        if (matrix.getCapabilitySet().intersects(metadata.getRequiredCapabilitySet())) {
+            return new EndpointAccessDecision(endpointId, true, EndpointAccessDecision.CAPABILITY);
+        }
+        logger.debug("Denied capabilities for {} {} to user {} - missing {} (has {})",
+                method, path, userId, requiredCapabilities, matrix.getCapabilitySet());
+        // ABAC policies grant nothing unconditionally, so check their conditions for this request
+        boolean allowed = policyEngineService.evaluateConditionalAccess(endpointId,
+                () -> context.apply(matrix.getRoles()));
+        return new EndpointAccessDecision(endpointId, allowed,
+                allowed ? EndpointAccessDecision.POLICY : EndpointAccessDecision.DENIED);
+    }
+
+    /**
+     * Decide every query; decisions are returned in query order.
+     *
+     * @throws IllegalArgumentException if the batch is larger than {@code app.authorization.batch.max-size}
+     */
+    public List<EndpointAccessDecision> evaluate(List<EndpointAccessQuery> queries) {
+        if (queries.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " checks are allowed per batch");
+        }
+        Batch batch = new Batch(resolveMatrices(queries));
+        EndpointAccessDecision[] decisions = new EndpointAccessDecision[queries.size()];
+
+        if (queries.size() < parallelThreshold || parallelism == 1) {
+            decideRange(batch, queries, decisions, 0, queries.size());
+        } else {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, (queries.size() + parallelism - 1) / parallelism);
+            List<Callable<Void>> chunks = new ArrayList<>();
+            for (int start = 0; start < queries.size(); start += chunkSize) {
+                int from = start;
+                int to = Math.min(start + chunkSize, queries.size());
+                chunks.add(() -> {
+                    decideRange(batch, queries, decisions, from, to);
+                    return null;
+                });
+            }
+            await(chunks);
+        }
+        logger.debug("Evaluated batch of {} access checks for {} distinct users", queries.size(), batch.matrices.size());
+        return Arrays.asList(decisions);
+    }
+
+    private void decideRange(Batch batch, List<EndpointAccessQuery> queries,
+                             EndpointAccessDecision[] decisions, int from, int to) {
+        for (int i = from; i < to; i++) {
+            decisions[i] = decide(batch, queries.get(i));
+        }
+    }
+
+    private EndpointAccessDecision decide(Batch batch, EndpointAccessQuery query) {
+        EndpointAuthorizationMetadata metadata;
+        if (query == null) {
+            return new EndpointAccessDecision(null, false, EndpointAccessDecision.INVALID_QUERY);
+        } else if (query.endpointId() != null) {
+            metadata = endpointAuthorizationCatalog.current().metadataFor(query.endpointId());
+        } else if (query.path() != null) {
+            metadata = authorizationService.getEndpointAuthorizationMetadata(query.method(), query.path());
+        } else {
+            return new EndpointAccessDecision(null, false, EndpointAccessDecision.INVALID_QUERY);
+        }
+        Long endpointId = metadata.isEndpointFound() ? metadata.getEndpointId() : query.endpointId();
+        if (!metadata.isEndpointFound()) {
+            return new EndpointAccessDecision(endpointId, false, EndpointAccessDecision.NOT_CATALOGED);
+        }
+        if (!metadata.hasPolicies()) {
+            return new EndpointAccessDecision(endpointId, false, EndpointAccessDecision.NO_POLICIES);
+        }
+
+        Set<String> roles;
+        CapabilitySet capabilities;
+        if (query.userId() != null) {
+            AuthorizationMatrix matrix = batch.matrices.get(query.userId());
+            if (matrix == null) {
+                return new EndpointAccessDecision(endpointId, false, EndpointAccessDecision.USER_NOT_FOUND);
+            }
+            roles = matrix.getRoles();
+            capabilities = matrix.getCapabilitySet();
+        } else {
+            roles = query.roles() != null ? query.roles() : Set.of();
+            capabilities = batch.capabilitiesOf(roles);
+        }
+        Supplier<AbacContext> context = () -> AbacContext.forResource(query.userId(), roles, query.attributes());
+
+        boolean allowed;
+        String reason;
+        if (!metadata.getRequiredCapabilities().isEmpty()
+                && capabilities.intersects(metadata.getRequiredCapabilitySet())) {
+            allowed = true;
+            reason = EndpointAccessDecision.CAPABILITY;
+        } else if (!metadata.getRequiredCapabilities().isEmpty()) {
+            allowed = policyEngineService.evaluateConditionalAccess(endpointId, context);
+            reason = allowed ? EndpointAccessDecision.POLICY : EndpointAccessDecision.DENIED;
+        } else {
+            allowed = policyEngineService.evaluateEndpointAccess(endpointId, context.get());
+            reason = allowed ? EndpointAccessDecision.POLICY : EndpointAccessDecision.DENIED;
+        }
+        return new EndpointAccessDecision(endpointId, allowed, reason);
+    }
+
+    /**
+     * Matrices of the distinct users in the batch; users that do not exist map to {@code null}.
+     */
+    private Map<Long, AuthorizationMatrix> resolveMatrices(List<EndpointAccessQuery> queries) {
+        Map<Long, AuthorizationMatrix> matrices = new HashMap<>();
+        for (EndpointAccessQuery query : queries) {
+            if (query == null || query.userId() == null || matrices.containsKey(query.userId())) {
+                continue;
+            }
+            matrices.put(query.userId(), matrixOf(query.userId()));
+        }
+        return matrices;
+    }
+
+    /**
+     * The user's matrix, or {@code null} if the user does not exist.
+     */
+    private AuthorizationMatrix matrixOf(Long userId) {
+        try {
+            return authorizationMatrixCache.get(userId);
+        } catch (RuntimeException e) {
+            logger.debug("No authorization matrix for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void await(List<Callable<Void>> chunks) {
+        try {
+            for (Future<Void> future : executor.invokeAll(chunks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating access checks", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to evaluate access checks", e.getCause());
+        }
+    }
+
+    /**
+     * Per-batch state shared by the threads deciding it.
+     */
+    private final class Batch {
+
+        /** Filled before evaluation starts and only read afterwards. */
+        final Map<Long, AuthorizationMatrix> matrices;
+        final Map<Set<String>, CapabilitySet> capabilitiesByRoles = new ConcurrentHashMap<>();
+
+        Batch(Map<Long, AuthorizationMatrix> matrices) {
+            this.matrices = matrices;
+        }
+
+        CapabilitySet capabilitiesOf(Set<String> roles) {
+            return capabilitiesByRoles.computeIfAbsent(roles,
+                    key -> CapabilitySet.of(roleCapabilityIndex.capabilitiesForRoles(key)));
+        }
+    }
+}
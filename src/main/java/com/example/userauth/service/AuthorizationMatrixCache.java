@@ -0,0 +1,130 @@
+package com.example.userauth.service;
+
+import com.example.userauth.repository.UserRoleAssignmentRepository;
+import com.example.userauth.service.dto.AuthorizationMatrix;
+import com.example.userauth.service.dto.UserTokenState;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link AuthorizationMatrix} per user, valid for one permission version.
+ * <p>
+ * An entry is used only while its permission version matches the user's current one in
+ * {@link UserTokenStateRegistry}, so role assignments, which bump the version, take effect at once.
+ * Policy and capability changes leave the user's roles alone; the capabilities are then re-derived
+ * from {@link RoleCapabilityIndex} in memory. Concurrent misses for the same user share one load.
+ * Exposed as the {@code authorization.matrices} cache metrics.
+ */
+@Service
+public class AuthorizationMatrixCache {
+
+    @Value("${app.authorization.matrix-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${app.authorization.matrix-cache.ttl-ms:3600000}")
+    private long ttlMillis;
+
+    private final UserTokenStateRegistry userTokenStateRegistry;
+    private final UserRoleAssignmentRepository userRoleRepository;
+    private final RoleCapabilityIndex roleCapabilityIndex;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Long, Entry> cache;
+
+    public AuthorizationMatrixCache(UserTokenStateRegistry userTokenStateRegistry,
+                                    UserRoleAssignmentRepository userRoleRepository,
+                                    RoleCapabilityIndex roleCapabilityIndex,
+                                    MeterRegistry meterRegistry) {
+        this.userTokenStateRegistry = userTokenStateRegistry;
+        this.userRoleRepository = userRoleRepository;
+        this.roleCapabilityIndex = roleCapabilityIndex;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(Duration.ofMillis(ttlMillis))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authorization.matrices");
+    }
+
+    /**
+     * Current matrix of the user.
+     *
+     * @throws RuntimeException if the user does not exist
+     */
+    public AuthorizationMatrix get(Long userId) {
+        UserTokenState state = userTokenStateRegistry.stateOf(userId);
+        if (state == null) {
+            throw new RuntimeException("User not found: " + userId);
+        }
+        Integer permissionVersion = state.permissionVersion();
+        // Read before the roles are loaded, so a change racing the load leaves the entry looking stale.
+        long indexVersion = roleCapabilityIndex.version();
+
+        Entry cached = cache.getIfPresent(userId);
+        if (cached != null && cached.isCurrent(permissionVersion, indexVersion)) {
+            return cached.matrix();
+        }
+        return cache.asMap().compute(userId, (id, existing) -> {
+            if (existing == null || !Objects.equals(existing.matrix().getPermissionVersion(), permissionVersion)) {
+                Set<String> roles = new HashSet<>(userRoleRepository.findRoleNamesByUserId(id));
+                return entry(id, permissionVersion, roles, indexVersion);
+            }
+            if (existing.indexVersion() != indexVersion) {
+                return entry(id, permissionVersion, existing.matrix().getRoles(), indexVersion);
+            }
+            return existing;
+        }).matrix();
+    }
+
+    /**
+     * Role renames keep the permission version, so members are named explicitly.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        if (event.type() != AuthorizationChangeEvent.Type.USER) {
+            return;
+        }
+        if (event.ids().isEmpty()) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidateAll(event.ids());
+        }
+    }
+
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        cache.invalidateAll();
+    }
+
+    private Entry entry(Long userId, Integer permissionVersion, Set<String> roles, long indexVersion) {
+        return new Entry(new AuthorizationMatrix(userId, permissionVersion, roles,
+            roleCapabilityIndex.capabilitiesForRoles(roles)), indexVersion);
+    }
+
+    private record Entry(AuthorizationMatrix matrix, long indexVersion) {
+
+        boolean isCurrent(Integer permissionVersion, long currentIndexVersion) {
+            return indexVersion == currentIndexVersion
+                && Objects.equals(matrix.getPermissionVersion(), permissionVersion);
+        }
+    }
+}
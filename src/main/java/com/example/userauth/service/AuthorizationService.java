@@ -4,35 +4,24 @@ import com.example.userauth.entity.Endpoint;
 import com.example.userauth.entity.PageAction;
 import com.example.userauth.entity.UIPage;
 import com.example.userauth.entity.User;
-import com.example.userauth.entity.UserRoleAssignment;
-import com.example.userauth.repository.CapabilityRepository;
-import com.example.userauth.repository.EndpointPolicyRepository;
-import com.example.userauth.repository.EndpointRepository;
 import com.example.userauth.repository.PageActionRepository;
-import com.example.userauth.repository.PolicyRepository;
 import com.example.userauth.repository.UIPageRepository;
 import com.example.userauth.repository.UserRepository;
-import com.example.userauth.repository.UserRoleAssignmentRepository;
 import com.example.userauth.service.dto.AuthorizationMatrix;
+import com.example.userauth.service.dto.CapabilitySet;
 import com.example.userauth.service.dto.EndpointAuthorizationMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -78,39 +67,22 @@ public class AuthorizationService {
     private static final Logger logger = LoggerFactory.getLogger(AuthorizationService.class);
 
     private final UserRepository userRepository;
-    private final UserRoleAssignmentRepository userRoleRepository;
-    private final PolicyRepository policyRepository;
-    private final CapabilityRepository capabilityRepository;
-    private final EndpointRepository endpointRepository;
-    private final EndpointPolicyRepository endpointPolicyRepository;
+    private final AuthorizationMatrixCache authorizationMatrixCache;
     private final UIPageRepository uiPageRepository;
     private final PageActionRepository pageActionRepository;
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
-
-    private static final long ENDPOINT_CACHE_TTL_MS = 30_000L;
-    private static final long POLICY_CAPABILITIES_CACHE_TTL_MS = 30_000L;
-
-    private final Map<String, List<EndpointDescriptor>> endpointCache = new ConcurrentHashMap<>();
-    private final AtomicLong endpointCacheLoadedAt = new AtomicLong(0);
-    private final Map<Long, CapabilitiesCacheEntry> policyCapabilitiesCache = new ConcurrentHashMap<>();
+    private final EndpointAuthorizationCatalog endpointAuthorizationCatalog;
 
     public AuthorizationService(
             UserRepository userRepository,
-            UserRoleAssignmentRepository userRoleRepository,
-            PolicyRepository policyRepository,
-            CapabilityRepository capabilityRepository,
-            EndpointRepository endpointRepository,
-            EndpointPolicyRepository endpointPolicyRepository,
+            AuthorizationMatrixCache authorizationMatrixCache,
             UIPageRepository uiPageRepository,
-            PageActionRepository pageActionRepository) {
+            PageActionRepository pageActionRepository,
+            EndpointAuthorizationCatalog endpointAuthorizationCatalog) {
         this.userRepository = userRepository;
-        this.userRoleRepository = userRoleRepository;
-        this.policyRepository = policyRepository;
-        this.capabilityRepository = capabilityRepository;
-        this.endpointRepository = endpointRepository;
-        this.endpointPolicyRepository = endpointPolicyRepository;
+        this.authorizationMatrixCache = authorizationMatrixCache;
         this.uiPageRepository = uiPageRepository;
         this.pageActionRepository = pageActionRepository;
+        this.endpointAuthorizationCatalog = endpointAuthorizationCatalog;
     }
 
     /**
@@ -126,11 +98,11 @@ public class AuthorizationService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found: " + userId));
 
-        AuthorizationMatrix matrix = buildAuthorizationMatrix(user);
+        AuthorizationMatrix matrix = authorizationMatrixCache.get(userId);
 
         logger.debug("User {} has roles: {}", userId, matrix.getRoles());
 
-        List<Map<String, Object>> pages = getAccessiblePagesFilteredByCapabilities(matrix.getRoles(), matrix.getCapabilities());
+        List<Map<String, Object>> pages = getAccessiblePagesFilteredByCapabilities(matrix.getRoles(), matrix.getCapabilitySet());
 
         Map<String, Object> response = new HashMap<>();
         response.put("userId", userId);
@@ -145,213 +117,31 @@ public class AuthorizationService {
     }
 
     /**
-     * Build an authorization matrix for backend enforcement.
-     * This reuses the same logic used for the UI payload.
+     * Authorization matrix for backend enforcement, the same one used for the UI payload.
+     * Served from {@link AuthorizationMatrixCache}, so repeated calls for an unchanged user need no
+     * transaction.
      */
-    @Transactional(readOnly = true)
     public AuthorizationMatrix buildAuthorizationMatrix(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found: " + userId));
-        return buildAuthorizationMatrix(user);
-    }
-
-    private AuthorizationMatrix buildAuthorizationMatrix(User user) {
-        List<UserRoleAssignment> userRoles = userRoleRepository.findByUserId(user.getId());
-        Set<String> roleNames = userRoles.stream()
-                .map(ur -> ur.getRole().getName())
-                .collect(Collectors.toSet());
-        Set<String> capabilities = getCapabilitiesForRoles(roleNames);
-        return new AuthorizationMatrix(user.getId(), user.getPermissionVersion(), roleNames, capabilities);
+        return authorizationMatrixCache.get(userId);
     }
 
     /**
      * Resolve the capability names that guard a specific endpoint definition.
      * Returns an empty set if the endpoint is not cataloged or has no policies.
+     * Answered entirely from the published {@link com.example.userauth.service.dto.EndpointAuthorizationSnapshot};
+     * no transaction is opened.
      */
-    @Transactional(readOnly = true)
     public EndpointAuthorizationMetadata getEndpointAuthorizationMetadata(String httpMethod, String requestPath) {
         String normalizedMethod = httpMethod != null ? httpMethod.toUpperCase(Locale.ROOT) : "GET";
         String normalizedPath = normalizePath(requestPath);
 
-        Optional<EndpointDescriptor> endpointOpt = findMatchingEndpoint(normalizedMethod, normalizedPath);
-        if (endpointOpt.isEmpty()) {
+        EndpointAuthorizationMetadata metadata = endpointAuthorizationCatalog.current().match(normalizedMethod, normalizedPath);
+        if (!metadata.isEndpointFound()) {
             logger.debug("No endpoint catalog match for method={} path={}", normalizedMethod, normalizedPath);
-            return new EndpointAuthorizationMetadata(false, null, false, Set.of(), Set.of());
-        }
-
-        EndpointDescriptor endpoint = endpointOpt.get();
-        if (!endpoint.active()) {
-            logger.debug("Endpoint {} is inactive, denying by default", endpoint.id());
-            return new EndpointAuthorizationMetadata(true, endpoint.id(), false, Set.of(), Set.of());
-        }
-
-        Set<Long> policyIds = endpointPolicyRepository.findByEndpointId(endpoint.id()).stream()
-                .map(ep -> ep.getPolicy() != null ? ep.getPolicy().getId() : null)
-                .filter(id -> id != null)
-                .collect(Collectors.toSet());
-
-        if (policyIds.isEmpty()) {
-            logger.debug("Endpoint {} has no policies linked", endpoint.id());
-            return new EndpointAuthorizationMetadata(true, endpoint.id(), false, Set.of(), Set.of());
-        }
-
-        Set<String> capabilities = resolveCapabilities(policyIds);
-
-        return new EndpointAuthorizationMetadata(true, endpoint.id(), true, policyIds, capabilities);
-    }
-
-    private Optional<EndpointDescriptor> findMatchingEndpoint(String method, String normalizedPath) {
-        List<EndpointDescriptor> candidates = getEndpointsForMethod(method);
-        for (EndpointDescriptor endpoint : candidates) {
-            if (!endpoint.active()) {
-                continue;
-            }
-            String endpointPath = normalizePath(endpoint.path());
-            if (pathMatcher.match(endpointPath, normalizedPath)) {
-                return Optional.of(endpoint);
-            }
-            for (String candidate : buildCompositePaths(endpoint, endpointPath)) {
-                if (pathMatcher.match(candidate, normalizedPath)) {
-                    return Optional.of(endpoint);
-                }
-            }
-        }
-        return Optional.empty();
-    }
-
-    private List<EndpointDescriptor> getEndpointsForMethod(String method) {
-        long now = System.currentTimeMillis();
-        if (now - endpointCacheLoadedAt.get() >= ENDPOINT_CACHE_TTL_MS) {
-            endpointCache.clear();
-            endpointCacheLoadedAt.set(now);
+        } else if (!metadata.hasPolicies()) {
+            logger.debug("Endpoint {} has no policies linked", metadata.getEndpointId());
         }
-        return endpointCache.computeIfAbsent(method, this::loadEndpointsForMethod);
-    }
-
-    private List<EndpointDescriptor> loadEndpointsForMethod(String method) {
-        return endpointRepository.findByMethod(method).stream()
-                .map(endpoint -> new EndpointDescriptor(
-                        endpoint.getId(),
-                        endpoint.getPath(),
-                        endpoint.getService(),
-                        endpoint.getVersion(),
-                        Boolean.TRUE.equals(endpoint.getIsActive())))
-                .collect(Collectors.toList());
-    }
-
-    private Set<String> resolveCapabilities(Set<Long> policyIds) {
-        if (policyIds.isEmpty()) {
-            return Collections.emptySet();
-        }
-
-        long now = System.currentTimeMillis();
-        Set<String> aggregated = new HashSet<>();
-        Set<Long> missing = new HashSet<>();
-
-        for (Long policyId : policyIds) {
-            CapabilitiesCacheEntry cached = policyCapabilitiesCache.get(policyId);
-            if (cached != null && !cached.isStale(now)) {
-                aggregated.addAll(cached.capabilities());
-            } else {
-                if (cached != null) {
-                    policyCapabilitiesCache.remove(policyId);
-                }
-                missing.add(policyId);
-            }
-        }
-
-        if (!missing.isEmpty()) {
-            Map<Long, Set<String>> fetched = fetchCapabilities(missing);
-            for (Map.Entry<Long, Set<String>> entry : fetched.entrySet()) {
-                Set<String> caps = entry.getValue();
-                policyCapabilitiesCache.put(entry.getKey(), new CapabilitiesCacheEntry(Set.copyOf(caps), now));
-                aggregated.addAll(caps);
-            }
-        }
-
-        return aggregated;
-    }
-
-    private Map<Long, Set<String>> fetchCapabilities(Set<Long> policyIds) {
-        if (policyIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        Map<Long, Set<String>> result = new HashMap<>();
-        List<PolicyRepository.PolicyCapabilitySummary> rows =
-                policyRepository.findCapabilityNamesByPolicyIds(policyIds);
-        for (PolicyRepository.PolicyCapabilitySummary row : rows) {
-            result.computeIfAbsent(row.getPolicyId(), ignored -> new HashSet<>())
-                  .add(row.getCapabilityName());
-        }
-
-        for (Long policyId : policyIds) {
-            result.computeIfAbsent(policyId, ignored -> Collections.emptySet());
-        }
-        return result;
-    }
-
-    private record EndpointDescriptor(Long id, String path, String service, String version, boolean active) {
-    }
-
-    private record CapabilitiesCacheEntry(Set<String> capabilities, long loadedAt) {
-        boolean isStale(long now) {
-            return now - loadedAt > POLICY_CAPABILITIES_CACHE_TTL_MS;
-        }
-    }
-
-    private List<String> buildCompositePaths(EndpointDescriptor endpoint, String normalizedEndpointPath) {
-        if (!StringUtils.hasText(endpoint.service())) {
-            return List.of();
-        }
-
-        String serviceSegment = trimSlashes(endpoint.service());
-        String versionSegment = trimSlashes(endpoint.version());
-
-        String suffix = normalizedEndpointPath.startsWith("/")
-                ? normalizedEndpointPath
-                : "/" + normalizedEndpointPath;
-
-        List<String> candidates = new ArrayList<>();
-
-        // /api/{service}/{version}{path}
-        StringBuilder builder = new StringBuilder("/api/").append(serviceSegment);
-        if (StringUtils.hasText(versionSegment)) {
-            builder.append("/").append(versionSegment);
-        }
-        candidates.add(mergePath(builder.toString(), suffix));
-
-        // /api/{service}{path}
-        candidates.add(mergePath("/api/" + serviceSegment, suffix));
-
-        // Ensure unique values and drop any equal to the original path
-        return candidates.stream()
-                .filter(candidate -> !candidate.equals(normalizedEndpointPath))
-                .distinct()
-                .toList();
-    }
-
-    private String trimSlashes(String value) {
-        if (value == null) {
-            return "";
-        }
-        String result = value;
-        while (result.startsWith("/")) {
-            result = result.substring(1);
-        }
-        while (result.endsWith("/")) {
-            result = result.substring(0, result.length() - 1);
-        }
-        return result;
-    }
-
-    private String mergePath(String base, String suffix) {
-        if (base.endsWith("/") && suffix.startsWith("/")) {
-            return base.substring(0, base.length() - 1) + suffix;
-        }
-        if (!base.endsWith("/") && !suffix.startsWith("/")) {
-            return base + "/" + suffix;
-        }
-        return base + suffix;
+        return metadata;
     }
 
     private String normalizePath(String path) {
@@ -372,25 +162,10 @@ public class AuthorizationService {
         return normalized;
     }
 
-    /**
-     * Get all capabilities granted to specific roles
-     */
-    private Set<String> getCapabilitiesForRoles(Set<String> roleNames) {
-        Set<String> capabilities = new HashSet<>();
-
-        for (String roleName : roleNames) {
-            List<String> roleCapabilities = capabilityRepository.findCapabilityNamesByRoleName(roleName);
-            capabilities.addAll(roleCapabilities);
-        }
-
-        logger.debug("Found {} capabilities for roles: {}", capabilities.size(), roleNames);
-        return capabilities;
-    }
-
     /**
      * Get accessible pages for user's roles
      */
-    private List<Map<String, Object>> getAccessiblePagesFilteredByCapabilities(Set<String> roleNames, Set<String> capabilities) {
+    private List<Map<String, Object>> getAccessiblePagesFilteredByCapabilities(Set<String> roleNames, CapabilitySet capabilities) {
         List<UIPage> allPages = uiPageRepository.findByIsActiveTrueOrderByDisplayOrderAsc();
         List<Map<String, Object>> accessiblePages = new ArrayList<>();
         Set<Long> accessiblePageIds = new HashSet<>();
@@ -0,0 +1,120 @@
+package com.example.userauth.service;
+
+import com.example.userauth.entity.Capability;
+import com.example.userauth.entity.Policy;
+import com.example.userauth.repository.CapabilityRepository;
+import com.example.userauth.repository.PolicyRepository;
+import com.example.userauth.service.dto.CapabilityDictionary;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the current {@link CapabilityDictionary} used to encode capability bitmaps in tokens.
+ * The dictionary is rebuilt in the background; readers always get the last published snapshot
+ * and never wait for a rebuild (see {@link RefreshingSnapshot}).
+ */
+@Service
+public class CapabilityDictionaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CapabilityDictionaryService.class);
+
+    private final CapabilityRepository capabilityRepository;
+    private final PolicyRepository policyRepository;
+    private final RefreshingSnapshot<CapabilityDictionary> dictionary =
+            new RefreshingSnapshot<>("capability dictionary", this::load);
+    private String publishedVersion;
+
+    public CapabilityDictionaryService(CapabilityRepository capabilityRepository,
+                                       PolicyRepository policyRepository) {
+        this.capabilityRepository = capabilityRepository;
+        this.policyRepository = policyRepository;
+    }
+
+    public CapabilityDictionary current() {
+        CapabilityDictionary current = dictionary.get();
+        return current != null ? current : CapabilityDictionary.EMPTY;
+    }
+
+    @Scheduled(fixedDelayString = "${app.authorization.capability-dictionary.refresh-interval-ms:3600000}")
+    public void refresh() {
+        dictionary.refresh();
+    }
+
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        dictionary.refresh();
+    }
+
+    /**
+     * The dictionary version hashes every capability and grant, so any capability or policy change rebuilds it.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        if (event.type() == AuthorizationChangeEvent.Type.CAPABILITY
+                || event.type() == AuthorizationChangeEvent.Type.POLICY) {
+            dictionary.refresh();
+        }
+    }
+
+    private CapabilityDictionary load() {
+        MessageDigest digest = sha256();
+        Map<String, Integer> idsByName = new HashMap<>();
+
+        List<Capability> capabilities = capabilityRepository.findByIsActiveTrue().stream()
+                .sorted(Comparator.comparing(Capability::getId))
+                .toList();
+        for (Capability capability : capabilities) {
+            idsByName.put(capability.getName(), Math.toIntExact(capability.getId()));
+            update(digest, "c:" + capability.getId() + ":" + capability.getName());
+        }
+
+        // Grants are part of the version so a changed policy invalidates bitmaps minted before it.
+        List<Policy> policies = policyRepository.findByIsActiveTrue().stream()
+                .sorted(Comparator.comparing(Policy::getId))
+                .toList();
+        for (Policy policy : policies) {
+            update(digest, "p:" + policy.getId() + ":" + policy.getExpression());
+        }
+        if (!policies.isEmpty()) {
+            policyRepository.findCapabilityNamesByPolicyIds(policies.stream().map(Policy::getId).toList()).stream()
+                    .map(row -> "g:" + row.getPolicyId() + ":" + row.getCapabilityName())
+                    .sorted()
+                    .forEach(line -> update(digest, line));
+        }
+
+        String version = HexFormat.of().formatHex(digest.digest(), 0, 8);
+        if (!version.equals(publishedVersion)) {
+            logger.info("Capability dictionary version {} published", version);
+            publishedVersion = version;
+        }
+        return new CapabilityDictionary(version, idsByName);
+    }
+
+    private static void update(MessageDigest digest, String line) {
+        digest.update(line.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.userauth.service;
+
+import com.example.userauth.entity.Endpoint;
+import com.example.userauth.repository.EndpointPolicyRepository;
+import com.example.userauth.repository.EndpointRepository;
+import com.example.userauth.repository.PolicyRepository;
+import com.example.userauth.service.dto.EndpointAuthorizationMetadata;
+import com.example.userauth.service.dto.EndpointAuthorizationSnapshot;
+import com.example.userauth.service.dto.EndpointAuthorizationSnapshot.EndpointDescriptor;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the current {@link EndpointAuthorizationSnapshot}.
+ * The snapshot is rebuilt in the background; readers always get the last published one, so a
+ * metadata lookup for a cataloged endpoint needs neither a JDBC connection nor a transaction.
+ * Rebuilds never overlap and never block readers (see {@link RefreshingSnapshot}).
+ * <p>
+ * Endpoint and policy changes patch only the affected endpoints as soon as they commit; a capability
+ * change rebuilds the whole snapshot. Changes made on other instances arrive the same way through the
+ * {@link com.example.userauth.service.invalidation.InvalidationBus}; the periodic rebuild only catches
+ * what the bus missed.
+ */
+@Service
+public class EndpointAuthorizationCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndpointAuthorizationCatalog.class);
+
+    private final EndpointRepository endpointRepository;
+    private final EndpointPolicyRepository endpointPolicyRepository;
+    private final PolicyRepository policyRepository;
+    private final RefreshingSnapshot<EndpointAuthorizationSnapshot> snapshot =
+            new RefreshingSnapshot<>("endpoint authorization snapshot", this::load);
+
+    public EndpointAuthorizationCatalog(EndpointRepository endpointRepository,
+                                        EndpointPolicyRepository endpointPolicyRepository,
+                                        PolicyRepository policyRepository) {
+        this.endpointRepository = endpointRepository;
+        this.endpointPolicyRepository = endpointPolicyRepository;
+        this.policyRepository = policyRepository;
+    }
+
+    public EndpointAuthorizationSnapshot current() {
+        EndpointAuthorizationSnapshot current = snapshot.get();
+        return current != null ? current : EndpointAuthorizationSnapshot.EMPTY;
+    }
+
+    @Scheduled(fixedDelayString = "${app.authorization.endpoint-snapshot.refresh-interval-ms:3600000}")
+    public void refresh() {
+        snapshot.refresh();
+    }
+
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        snapshot.refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        if (event.ids().isEmpty()) {
+            if (event.type() == AuthorizationChangeEvent.Type.ENDPOINT
+                    || event.type() == AuthorizationChangeEvent.Type.POLICY
+                    || event.type() == AuthorizationChangeEvent.Type.CAPABILITY) {
+                snapshot.refresh();
+            }
+            return;
+        }
+        switch (event.type()) {
+            case ENDPOINT:
+                snapshot.update(current -> patch(current, event.ids()));
+                break;
+            case POLICY:
+                snapshot.update(current -> patch(current, current.endpointIdsForPolicies(event.ids())));
+                break;
+            case CAPABILITY:
+                snapshot.refresh();
+                break;
+            default:
+                // Roles, users and page actions are not part of the endpoint snapshot.
+                break;
+        }
+    }
+
+    private EndpointAuthorizationSnapshot load() {
+        long start = System.currentTimeMillis();
+        List<EndpointDescriptor> endpoints = describe(endpointRepository.findAll());
+        Map<Long, EndpointAuthorizationMetadata> metadata = buildMetadata(endpoints, endpointPolicyRepository.findAllLinks());
+
+        EndpointAuthorizationSnapshot loaded = new EndpointAuthorizationSnapshot(endpoints, metadata, System.currentTimeMillis());
+        logger.debug("Endpoint authorization snapshot with {} endpoints built in {} ms",
+                loaded.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    /**
+     * Reload only the given endpoints, their policy links and the capabilities those policies grant.
+     */
+    private EndpointAuthorizationSnapshot patch(EndpointAuthorizationSnapshot current, Set<Long> endpointIds) {
+        if (endpointIds.isEmpty()) {
+            return current;
+        }
+        List<EndpointDescriptor> endpoints = describe(endpointRepository.findAllById(endpointIds));
+        Map<Long, EndpointAuthorizationMetadata> metadata =
+                buildMetadata(endpoints, endpointPolicyRepository.findLinksByEndpointIds(endpointIds));
+        logger.debug("Patched {} endpoint(s) in the endpoint authorization snapshot", endpointIds.size());
+        return current.withEndpoints(endpointIds, endpoints, metadata, System.currentTimeMillis());
+    }
+
+    private List<EndpointDescriptor> describe(Collection<Endpoint> endpoints) {
+        return endpoints.stream()
+                .sorted(Comparator.comparing(Endpoint::getId))
+                .map(endpoint -> new EndpointDescriptor(
+                        endpoint.getId(),
+                        endpoint.getMethod() != null ? endpoint.getMethod().toUpperCase(Locale.ROOT) : null,
+                        endpoint.getPath(),
+                        endpoint.getService(),
+                        endpoint.getVersion(),
+                        Boolean.TRUE.equals(endpoint.getIsActive())))
+                .toList();
+    }
+
+    private Map<Long, EndpointAuthorizationMetadata> buildMetadata(List<EndpointDescriptor> endpoints,
+                                                                   List<EndpointPolicyRepository.EndpointPolicyLink> links) {
+        Map<Long, Set<Long>> policyIdsByEndpoint = new HashMap<>();
+        for (EndpointPolicyRepository.EndpointPolicyLink link : links) {
+            policyIdsByEndpoint.computeIfAbsent(link.getEndpointId(), ignored -> new HashSet<>()).add(link.getPolicyId());
+        }
+
+        Map<Long, Set<String>> capabilitiesByPolicy = new HashMap<>();
+        Set<Long> linkedPolicyIds = new HashSet<>();
+        policyIdsByEndpoint.values().forEach(linkedPolicyIds::addAll);
+        if (!linkedPolicyIds.isEmpty()) {
+            for (PolicyRepository.PolicyCapabilitySummary row : policyRepository.findCapabilityNamesByPolicyIds(linkedPolicyIds)) {
+                capabilitiesByPolicy.computeIfAbsent(row.getPolicyId(), ignored -> new HashSet<>()).add(row.getCapabilityName());
+            }
+        }
+
+        Map<Long, EndpointAuthorizationMetadata> metadata = new HashMap<>();
+        for (EndpointDescriptor endpoint : endpoints) {
+            Set<Long> policyIds = policyIdsByEndpoint.getOrDefault(endpoint.id(), Set.of());
+            if (!endpoint.active() || policyIds.isEmpty()) {
+                metadata.put(endpoint.id(), new EndpointAuthorizationMetadata(true, endpoint.id(), false, Set.of(), Set.of()));
+                continue;
+            }
+            Set<String> capabilities = new HashSet<>();
+            for (Long policyId : policyIds) {
+                capabilities.addAll(capabilitiesByPolicy.getOrDefault(policyId, Set.of()));
+            }
+            metadata.put(endpoint.id(), new EndpointAuthorizationMetadata(true, endpoint.id(), true, policyIds, capabilities));
+        }
+        return metadata;
+    }
+}
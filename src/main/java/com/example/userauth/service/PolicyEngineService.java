@@ -2,17 +2,47 @@ package com.example.userauth.service;
 
 import com.example.userauth.entity.Policy;
 import com.example.userauth.repository.PolicyRepository;
+import com.example.userauth.service.abac.AbacCondition;
+import com.example.userauth.service.abac.AbacConditionCompiler;
+import com.example.userauth.service.abac.AbacContext;
+import com.example.userauth.service.dto.EndpointAuthorizationMetadata;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import com.example.userauth.service.event.InvalidationGapEvent;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
- * Policy Engine Service - Evaluates RBAC policies for authorization decisions
+ * Policy Engine Service - Evaluates RBAC and ABAC policies for authorization decisions
+ * <p>
+ * RBAC expressions list roles: {@code {"roles": ["ADMIN"]}}. ABAC expressions add a condition over
+ * request attributes (see {@link AbacConditionCompiler}) and optionally restrict roles:
+ * {@code {"roles": ["AUDITOR"], "condition": "env.hour >= 8 && env.hour < 18"}}; without roles the
+ * condition alone decides.
+ * <p>
+ * Each policy is compiled once into an immutable {@link CompiledPolicy} (type resolved, roles taken from {@code policy_roles},
+ * condition compiled)
+ * and cached by id together with its {@code updatedAt}; it is recompiled only when that changes.
+ * Policy change events drop the affected entries at once, and a periodic sweep catches changes the
+ * events missed. The policies of a cataloged endpoint come from the endpoint snapshot, so evaluation
+ * needs no database access once they are compiled.
  */
 @Service
 public class PolicyEngineService {
@@ -21,10 +51,20 @@ public class PolicyEngineService {
     
     private final PolicyRepository policyRepository;
     private final ObjectMapper objectMapper;
+    private final EndpointAuthorizationCatalog endpointAuthorizationCatalog;
+    private final AbacConditionCompiler abacConditionCompiler;
+    private final Map<Long, CompiledPolicy> compiledPolicies = new ConcurrentHashMap<>();
+    /** Bumped on every invalidation so a compile that raced it is not cached. */
+    private final AtomicLong invalidations = new AtomicLong();
 
-    public PolicyEngineService(PolicyRepository policyRepository, ObjectMapper objectMapper) {
+    public PolicyEngineService(PolicyRepository policyRepository,
+                               ObjectMapper objectMapper,
+                               EndpointAuthorizationCatalog endpointAuthorizationCatalog,
+                               AbacConditionCompiler abacConditionCompiler) {
         this.policyRepository = policyRepository;
         this.objectMapper = objectMapper;
+        this.endpointAuthorizationCatalog = endpointAuthorizationCatalog;
+        this.abacConditionCompiler = abacConditionCompiler;
     }
 
     /**
@@ -35,7 +75,18 @@ public class PolicyEngineService {
      * @return true if access is granted, false otherwise
      */
     public boolean evaluateEndpointAccess(Long endpointId, Set<String> userRoles) {
-        List<Policy> policies = policyRepository.findByEndpointId(endpointId);
+        return evaluateEndpointAccess(endpointId, AbacContext.forResource(null, userRoles, Map.of()));
+    }
+
+    /**
+     * Evaluate if the caller described by {@code context} can access an endpoint
+     *
+     * @param endpointId The endpoint to check access for
+     * @param context The caller's roles and the attributes ABAC conditions may read
+     * @return true if access is granted, false otherwise
+     */
+    public boolean evaluateEndpointAccess(Long endpointId, AbacContext context) {
+        List<CompiledPolicy> policies = compiledPoliciesForEndpoint(endpointId);
         
         if (policies.isEmpty()) {
             logger.warn("No policies found for endpoint ID: {}", endpointId);
@@ -43,17 +94,56 @@ public class PolicyEngineService {
         }
 
         // Evaluate each policy - if ANY policy grants access, allow
-        for (Policy policy : policies) {
-            if (evaluatePolicy(policy, userRoles)) {
-                logger.debug("Access granted by policy: {} for endpoint: {}", policy.getName(), endpointId);
+        for (CompiledPolicy policy : policies) {
+            if (policy.grants(context)) {
+                logger.debug("Access granted by policy: {} for endpoint: {}", policy.name(), endpointId);
                 return true;
             }
         }
 
-        logger.debug("Access denied for endpoint: {} with roles: {}", endpointId, userRoles);
+        logger.debug("Access denied for endpoint: {} with roles: {}", endpointId, context.getRoles());
         return false;
     }
 
+    /**
+     * Evaluate only the ABAC policies of an endpoint. Their grants depend on the request, so they never
+     * become unconditional capabilities; callers whose capability check failed ask here next.
+     *
+     * @param context created only if the endpoint has an ABAC policy
+     * @return true if an ABAC policy grants access
+     */
+    public boolean evaluateConditionalAccess(Long endpointId, Supplier<AbacContext> context) {
+        AbacContext resolved = null;
+        for (CompiledPolicy policy : compiledPoliciesForEndpoint(endpointId)) {
+            if (policy.condition() == null) {
+                continue;
+            }
+            if (resolved == null) {
+                resolved = context.get();
+            }
+            if (policy.grants(resolved)) {
+                logger.debug("Access granted by ABAC policy: {} for endpoint: {}", policy.name(), endpointId);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check an ABAC policy expression before it is saved.
+     *
+     * @throws IllegalArgumentException if it is not valid JSON, has no condition or the condition does not compile
+     */
+    public void validateAbacExpression(String expression) {
+        JsonNode policyExpression;
+        try {
+            policyExpression = objectMapper.readTree(expression);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid policy expression: " + e.getMessage());
+        }
+        compileCondition(policyExpression);
+    }
+
     /**
      * Evaluate if user with given roles satisfies a page access policy
      * Pages don't have direct policy links - they have actions with required capabilities
@@ -71,66 +161,134 @@ public class PolicyEngineService {
     }
 
     /**
-     * Evaluate a single policy against user roles
-     * 
-     * @param policy The policy to evaluate
-     * @param userRoles The roles the user has
-     * @return true if policy grants access, false otherwise
+     * Drop the compiled form of changed policies; they are recompiled on next use.
      */
-    private boolean evaluatePolicy(Policy policy, Set<String> userRoles) {
-        try {
-            JsonNode policyExpression = objectMapper.readTree(policy.getExpression());
-            
-            // Handle RBAC policy type
-            if ("RBAC".equalsIgnoreCase(policy.getType())) {
-                return evaluateRBACPolicy(policyExpression, userRoles);
-            }
-            
-            // Handle ABAC policy type (future enhancement)
-            if ("ABAC".equalsIgnoreCase(policy.getType())) {
-                logger.warn("ABAC policies not yet implemented, defaulting to deny");
-                return false;
-            }
-            
-            logger.warn("Unknown policy type: {}", policy.getType());
-            return false;
-            
-        } catch (Exception e) {
-            logger.error("Error evaluating policy: {}", policy.getName(), e);
-            return false;
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        if (event.type() != AuthorizationChangeEvent.Type.POLICY) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        if (event.ids().isEmpty()) {
+            compiledPolicies.clear();
+        } else {
+            event.ids().forEach(compiledPolicies::remove);
         }
     }
 
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        invalidations.incrementAndGet();
+        compiledPolicies.clear();
+    }
+
     /**
-     * Evaluate RBAC policy expression
-     * Expected format: {"roles": ["ADMIN", "RECONCILIATION_OFFICER"]}
-     * Logic: User must have at least one of the specified roles (OR logic)
-     * 
-     * @param policyExpression The JSON policy expression
-     * @param userRoles The roles the user has
-     * @return true if user has any of the required roles
+     * Drop compiled policies whose {@code updatedAt} no longer matches the database.
      */
-    private boolean evaluateRBACPolicy(JsonNode policyExpression, Set<String> userRoles) {
-        if (!policyExpression.has("roles")) {
-            logger.warn("RBAC policy missing 'roles' field");
-            return false;
+    @Scheduled(fixedDelayString = "${app.authorization.compiled-policies.refresh-interval-ms:3600000}")
+    public void evictModified() {
+        if (compiledPolicies.isEmpty()) {
+            return;
+        }
+        Map<Long, LocalDateTime> versions = new HashMap<>();
+        for (PolicyRepository.PolicyVersion version : policyRepository.findAllVersions()) {
+            versions.put(version.getPolicyId(), version.getUpdatedAt());
         }
+        compiledPolicies.values().removeIf(policy -> !policy.isCurrent(versions.get(policy.id())));
+    }
 
-        JsonNode rolesNode = policyExpression.get("roles");
-        if (!rolesNode.isArray()) {
-            logger.warn("RBAC policy 'roles' field is not an array");
-            return false;
+    private List<CompiledPolicy> compiledPoliciesForEndpoint(Long endpointId) {
+        EndpointAuthorizationMetadata metadata = endpointAuthorizationCatalog.current().metadataFor(endpointId);
+        long generation = invalidations.get();
+        if (!metadata.isEndpointFound() || !metadata.hasPolicies()) {
+            // Not in the snapshot (or inactive there): ask the database, but still reuse compiled forms
+            List<CompiledPolicy> policies = new ArrayList<>();
+            for (Policy policy : policyRepository.findByEndpointId(endpointId)) {
+                CompiledPolicy compiled = compiledPolicies.get(policy.getId());
+                if (compiled == null || !compiled.isCurrent(policy.getUpdatedAt())) {
+                    compiled = compile(policy);
+                    cache(compiled, generation);
+                }
+                policies.add(compiled);
+            }
+            return policies;
         }
 
-        // Check if user has ANY of the required roles (OR logic)
-        for (JsonNode roleNode : rolesNode) {
-            String requiredRole = roleNode.asText();
-            if (userRoles.contains(requiredRole)) {
-                return true;
+        List<CompiledPolicy> policies = new ArrayList<>(metadata.getPolicyIds().size());
+        Set<Long> missing = null;
+        for (Long policyId : metadata.getPolicyIds()) {
+            CompiledPolicy compiled = compiledPolicies.get(policyId);
+            if (compiled != null) {
+                policies.add(compiled);
+            } else {
+                if (missing == null) {
+                    missing = new HashSet<>();
+                }
+                missing.add(policyId);
+            }
+        }
+        if (missing != null) {
+            for (Policy policy : policyRepository.findAllById(missing)) {
+                CompiledPolicy compiled = compile(policy);
+                cache(compiled, generation);
+                policies.add(compiled);
             }
         }
+        return policies;
+    }
 
-        return false;
+    private void cache(CompiledPolicy compiled, long generation) {
+        if (invalidations.get() == generation) {
+            compiledPolicies.put(compiled.id(), compiled);
+        }
+    }
+
+    /**
+     * Compile a policy; inactive, malformed and not yet supported policies compile to one that grants nothing.
+     */
+    private CompiledPolicy compile(Policy policy) {
+        Set<String> roles = Set.of();
+        AbacCondition condition = null;
+        if (!Boolean.TRUE.equals(policy.getIsActive())) {
+            logger.debug("Policy {} is inactive and grants nothing", policy.getName());
+        } else if ("RBAC".equalsIgnoreCase(policy.getType())) {
+            roles = compileRBACRoles(policy);
+        } else if ("ABAC".equalsIgnoreCase(policy.getType())) {
+            try {
+                condition = compileCondition(objectMapper.readTree(policy.getExpression()));
+                roles = Set.copyOf(policy.getRoles());
+            } catch (Exception e) {
+                logger.error("Error compiling ABAC policy {}, it grants nothing: {}", policy.getName(), e.getMessage());
+                condition = null;
+                roles = Set.of();
+            }
+        } else {
+            logger.warn("Unknown policy type: {}", policy.getType());
+        }
+        return new CompiledPolicy(policy.getId(), policy.getName(), policy.getUpdatedAt(), roles, condition);
+    }
+
+    private AbacCondition compileCondition(JsonNode policyExpression) {
+        JsonNode conditionNode = policyExpression != null ? policyExpression.get("condition") : null;
+        if (conditionNode == null || !conditionNode.isTextual()) {
+            throw new IllegalArgumentException("ABAC policy needs a 'condition' string");
+        }
+        return abacConditionCompiler.compile(conditionNode.asText());
+    }
+
+    /**
+     * Roles of an RBAC policy, as indexed from its expression
+     * Expected format: {"roles": ["ADMIN", "RECONCILIATION_OFFICER"]}
+     * Logic: User must have at least one of the specified roles (OR logic)
+     *
+     * @return the roles, or an empty set if the expression lists none or is malformed
+     */
+    private Set<String> compileRBACRoles(Policy policy) {
+        Set<String> roles = policy.getRoles();
+        if (roles.isEmpty()) {
+            logger.warn("RBAC policy {} lists no roles", policy.getName());
+        }
+        return Set.copyOf(roles);
     }
 
     /**
@@ -151,4 +309,43 @@ public class PolicyEngineService {
     public List<Policy> getAllActivePolicies() {
         return policyRepository.findByIsActiveTrue();
     }
+
+    /**
+     * Immutable, pre-parsed form of a policy, valid while the policy's {@code updatedAt} is unchanged.
+     * RBAC policies have no condition; an ABAC policy without roles is decided by its condition alone.
+     */
+    private record CompiledPolicy(Long id, String name, LocalDateTime updatedAt, Set<String> roles,
+                                  AbacCondition condition) {
+
+        boolean isCurrent(LocalDateTime currentUpdatedAt) {
+            return Objects.equals(updatedAt, currentUpdatedAt);
+        }
+
+        boolean grants(AbacContext context) {
+            if (condition == null) {
+                return hasAnyRole(context.getRoles());
+            }
+            return (roles.isEmpty() || hasAnyRole(context.getRoles())) && condition.test(context);
+        }
+
+        /**
+         * Whether any of the user's roles is granted; walks the smaller set without allocating.
+         */
+        private boolean hasAnyRole(Set<String> userRoles) {
+            if (roles.size() <= userRoles.size()) {
+                for (String role : roles) {
+                    if (userRoles.contains(role)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            for (String role : userRoles) {
+                if (roles.contains(role)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.userauth.service;
+
+/**
+ * A refresh was rejected after its token family was revoked (reused token, inactive account).
+ * Transactions commit on this exception so the revocation is kept.
+ */
+public class RefreshTokenRevokedException extends RuntimeException {
+
+    public RefreshTokenRevokedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.userauth.service;
+
+import com.example.userauth.entity.RefreshToken;
+import com.example.userauth.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. Raw tokens are 256-bit random values returned to the client
+ * once; only their SHA-256 hash is stored.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.jwt.refresh-expiration:1209600}")
+    private long refreshExpirationSeconds;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    /**
+     * A refresh token as handed to the client.
+     */
+    public record IssuedRefreshToken(String token, String familyId, Long userId, Instant expiresAt) {
+    }
+
+    /**
+     * Start a new token family, e.g. on login.
+     */
+    @Transactional
+    public IssuedRefreshToken issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    @Transactional
+    public IssuedRefreshToken issue(Long userId, String familyId) {
+        byte[] random = new byte[32];
+        secureRandom.nextBytes(random);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        Instant expiresAt = Instant.now().plus(refreshExpirationSeconds, ChronoUnit.SECONDS);
+        refreshTokenRepository.save(new RefreshToken(hash(rawToken), familyId, userId, expiresAt));
+        return new IssuedRefreshToken(rawToken, familyId, userId, expiresAt);
+    }
+
+    /**
+     * Consume a refresh token and issue its successor in the same family.
+     * Presenting a token that was already used or revoked revokes the entire family and throws
+     * {@link RefreshTokenRevokedException}, on which the transaction commits so the revocation is
+     * kept. Any other failure rolls back, including the {@code usedAt} mark.
+     *
+     * @throws RefreshTokenRevokedException if the token was reused or revoked
+     * @throws RuntimeException if the token is unknown or expired
+     */
+    @Transactional(noRollbackFor = RefreshTokenRevokedException.class)
+    public IssuedRefreshToken rotate(String rawToken) {
+        if (!StringUtils.hasText(rawToken)) {
+            throw new IllegalArgumentException("Refresh token is required");
+        }
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+            .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+
+        Instant now = Instant.now();
+        if (current.getUsedAt() != null || current.getRevokedAt() != null) {
+            // Same transaction: the row is locked by findByTokenHash until it ends
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            logger.warn("Refresh token reuse detected for user {} (family {}); revoked {} tokens",
+                current.getUserId(), current.getFamilyId(), revoked);
+            throw new RefreshTokenRevokedException("Refresh token has already been used");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new RuntimeException("Refresh token has expired");
+        }
+
+        current.setUsedAt(now);
+        return issue(current.getUserId(), current.getFamilyId());
+    }
+
+    @Transactional
+    public void revokeFamily(String familyId) {
+        if (StringUtils.hasText(familyId)) {
+            int revoked = refreshTokenRepository.revokeFamily(familyId, Instant.now());
+            logger.debug("Revoked {} refresh tokens in family {}", revoked, familyId);
+        }
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId, Instant.now());
+        logger.debug("Revoked {} refresh tokens for user {}", revoked, userId);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.userauth.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the last value produced by a loader and reloads it without a cache stampede.
+ * <p>
+ * At most one load runs at a time. Readers never wait for a reload; they keep getting the
+ * previous value until the new one is published. Only the very first read, before any value
+ * exists, waits, and concurrent first readers share that one load. A refresh requested while a
+ * load is running queues exactly one follow-up load, so a change committed mid-load is not missed.
+ * A failed load is logged and the previous value stays published.
+ * <p>
+ * {@link #update(UnaryOperator)} publishes a patched copy of the current value instead of a full
+ * load. Patches run on the same single-flight path, so they are never lost to a concurrent load
+ * that started before the change committed; a failed patch falls back to a full load.
+ */
+final class RefreshingSnapshot<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshingSnapshot.class);
+
+    private final String name;
+    private final Supplier<T> loader;
+    private final Object lock = new Object();
+
+    private volatile Versioned<T> current;
+    private CompletableFuture<T> inFlight;
+    private boolean reloadRequested;
+    private final List<UnaryOperator<T>> pendingPatches = new ArrayList<>();
+    private long nextVersion = 1;
+
+    RefreshingSnapshot(String name, Supplier<T> loader) {
+        this.name = name;
+        this.loader = loader;
+    }
+
+    /**
+     * @return the published value, or {@code null} if nothing could be loaded yet
+     */
+    T get() {
+        Versioned<T> snapshot = current;
+        if (snapshot != null) {
+            return snapshot.value();
+        }
+        return load(false).join();
+    }
+
+    /**
+     * Version of the published value; increases by one with every successful load, 0 before the first.
+     */
+    long version() {
+        Versioned<T> snapshot = current;
+        return snapshot != null ? snapshot.version() : 0L;
+    }
+
+    /**
+     * Reload on the calling thread, or if a load is already running, make sure another one follows it.
+     * The returned future completes once a load that started after this call has finished.
+     */
+    CompletableFuture<T> refresh() {
+        return load(true);
+    }
+
+    /**
+     * Publish {@code patch} applied to the current value, on the calling thread or after the running load.
+     * Without a current value this is a full {@link #refresh()}. A pending full load makes the patch redundant.
+     */
+    CompletableFuture<T> update(UnaryOperator<T> patch) {
+        CompletableFuture<T> future;
+        synchronized (lock) {
+            if (current == null) {
+                return load(true);
+            }
+            if (inFlight != null) {
+                if (!reloadRequested) {
+                    pendingPatches.add(patch);
+                }
+                return inFlight;
+            }
+            pendingPatches.add(patch);
+            future = new CompletableFuture<>();
+            inFlight = future;
+        }
+        run(future, false);
+        return future;
+    }
+
+    private CompletableFuture<T> load(boolean reloadIfRunning) {
+        CompletableFuture<T> future;
+        synchronized (lock) {
+            if (inFlight != null) {
+                if (reloadIfRunning) {
+                    reloadRequested = true;
+                    pendingPatches.clear();
+                }
+                return inFlight;
+            }
+            future = new CompletableFuture<>();
+            inFlight = future;
+        }
+        run(future, true);
+        return future;
+    }
+
+    private void run(CompletableFuture<T> future, boolean fullLoad) {
+        try {
+            boolean again = true;
+            while (again) {
+                List<UnaryOperator<T>> patches;
+                synchronized (lock) {
+                    fullLoad = fullLoad || current == null;
+                    patches = fullLoad ? List.of() : List.copyOf(pendingPatches);
+                    pendingPatches.clear();
+                }
+                try {
+                    T value = fullLoad ? loader.get() : applyAll(current.value(), patches);
+                    synchronized (lock) {
+                        current = new Versioned<>(value, nextVersion++);
+                    }
+                } catch (RuntimeException e) {
+                    if (fullLoad) {
+                        logger.error("Failed to load {}, keeping version {}: {}", name, version(), e.getMessage());
+                    } else {
+                        logger.warn("Failed to patch {}, reloading it: {}", name, e.getMessage());
+                        synchronized (lock) {
+                            reloadRequested = true;
+                        }
+                    }
+                }
+                synchronized (lock) {
+                    fullLoad = reloadRequested;
+                    again = reloadRequested || !pendingPatches.isEmpty();
+                    reloadRequested = false;
+                    if (!again) {
+                        inFlight = null;
+                    }
+                }
+            }
+        } catch (Error e) {
+            synchronized (lock) {
+                inFlight = null;
+                reloadRequested = false;
+                pendingPatches.clear();
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+        Versioned<T> snapshot = current;
+        future.complete(snapshot != null ? snapshot.value() : null);
+    }
+
+    private static <T> T applyAll(T value, List<UnaryOperator<T>> patches) {
+        T patched = value;
+        for (UnaryOperator<T> patch : patches) {
+            patched = patch.apply(patched);
+        }
+        return patched;
+    }
+
+    private record Versioned<T>(T value, long version) {
+    }
+}
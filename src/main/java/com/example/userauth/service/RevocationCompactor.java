@@ -0,0 +1,81 @@
+package com.example.userauth.service;
+
+import com.example.userauth.repository.RefreshTokenRepository;
+import com.example.userauth.repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.function.BiFunction;
+
+/**
+ * Removes expired rows from {@code revoked_tokens} and {@code refresh_tokens} in the background,
+ * so logout and refresh never pay for cleanup.
+ * <p>
+ * Each pass deletes at most {@code batch-size * max-batches} rows per table, one short transaction
+ * per batch. With {@code app.jwt.revocation.compaction.partitioned=true} the revoked tokens table is
+ * expected to use the daily partition layout from {@code scripts/postgres/revoked_tokens_partitioning.sql}
+ * and expired revocations are removed by dropping whole partitions instead.
+ */
+@Service
+public class RevocationCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationCompactor.class);
+
+    @Value("${app.jwt.revocation.compaction.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.jwt.revocation.compaction.max-batches:10}")
+    private int maxBatches;
+
+    @Value("${app.jwt.revocation.compaction.partitioned:false}")
+    private boolean partitioned;
+
+    /** Daily partitions created ahead of time; should exceed the longest access token lifetime. */
+    @Value("${app.jwt.revocation.compaction.partition-days-ahead:7}")
+    private int partitionDaysAhead;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    public RevocationCompactor(RevokedTokenRepository revokedTokenRepository,
+                               RefreshTokenRepository refreshTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.compaction.interval-ms:60000}")
+    public void compact() {
+        Instant cutoff = Instant.now();
+        try {
+            if (partitioned) {
+                int dropped = revokedTokenRepository.maintainPartitions(partitionDaysAhead);
+                if (dropped > 0) {
+                    logger.info("Dropped {} expired revoked_tokens partitions", dropped);
+                }
+            } else {
+                deleteInBatches("revoked_tokens", revokedTokenRepository::deleteExpiredBatch, cutoff);
+            }
+            deleteInBatches("refresh_tokens", refreshTokenRepository::deleteExpiredBatch, cutoff);
+        } catch (RuntimeException e) {
+            logger.warn("Token compaction pass failed: {}", e.getMessage());
+        }
+    }
+
+    private void deleteInBatches(String table, BiFunction<Instant, Integer, Integer> deleteBatch, Instant cutoff) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int deleted = deleteBatch.apply(cutoff, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            logger.debug("Deleted {} expired rows from {}", total, table);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.userauth.service;
+
+import com.example.userauth.entity.Policy;
+import com.example.userauth.repository.PolicyRepository;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory index from role name to the active policies naming it and the capabilities they grant.
+ * <p>
+ * Each active policy's roles come from its indexed {@code policy_roles}, so roles match exactly ("ADMIN" does not
+ * match "SUPER_ADMIN") and resolving a user's capabilities is a union of precomputed sets. ABAC
+ * policies grant no capabilities here, as their conditions can only be checked per request. Policy
+ * changes reload only the changed policies; capability changes rebuild the index. Published and
+ * rebuilt without blocking readers (see {@link RefreshingSnapshot}).
+ */
+@Service
+public class RoleCapabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoleCapabilityIndex.class);
+
+    private final PolicyRepository policyRepository;
+    private final RefreshingSnapshot<Snapshot> snapshot =
+            new RefreshingSnapshot<>("role capability index", this::load);
+
+    public RoleCapabilityIndex(PolicyRepository policyRepository) {
+        this.policyRepository = policyRepository;
+    }
+
+    /**
+     * Union of the capabilities granted to any of the roles.
+     */
+    public Set<String> capabilitiesForRoles(Collection<String> roleNames) {
+        Snapshot current = current();
+        if (roleNames.size() == 1) {
+            return current.capabilitiesByRole.getOrDefault(roleNames.iterator().next(), Set.of());
+        }
+        Set<String> capabilities = new HashSet<>();
+        for (String roleName : roleNames) {
+            capabilities.addAll(current.capabilitiesByRole.getOrDefault(roleName, Set.of()));
+        }
+        return capabilities;
+    }
+
+    /**
+     * Capability names granted to the role, sorted.
+     */
+    public Set<String> capabilitiesForRole(String roleName) {
+        return current().capabilitiesByRole.getOrDefault(roleName, Set.of());
+    }
+
+    /**
+     * Names of the active RBAC policies that list the role, sorted.
+     */
+    public Set<String> rbacPolicyNamesForRole(String roleName) {
+        return current().rbacPolicyNamesByRole.getOrDefault(roleName, Set.of());
+    }
+
+    /**
+     * Increases whenever the index is rebuilt or patched, so derived caches can tell they are stale.
+     */
+    public long version() {
+        return snapshot.version();
+    }
+
+    @Scheduled(fixedDelayString = "${app.authorization.role-capability-index.refresh-interval-ms:3600000}")
+    public void refresh() {
+        snapshot.refresh();
+    }
+
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        snapshot.refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        if (event.type() == AuthorizationChangeEvent.Type.POLICY && !event.ids().isEmpty()) {
+            snapshot.update(current -> patch(current, event.ids()));
+        } else if (event.type() == AuthorizationChangeEvent.Type.POLICY
+                || event.type() == AuthorizationChangeEvent.Type.CAPABILITY) {
+            snapshot.refresh();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        return current != null ? current : Snapshot.EMPTY;
+    }
+
+    private Snapshot load() {
+        long start = System.currentTimeMillis();
+        Snapshot loaded = new Snapshot(entriesFor(policyRepository.findByIsActiveTrue()));
+        logger.debug("Role capability index with {} roles built in {} ms",
+                loaded.capabilitiesByRole.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    private Snapshot patch(Snapshot current, Set<Long> policyIds) {
+        List<Policy> active = policyRepository.findAllById(policyIds).stream()
+                .filter(policy -> Boolean.TRUE.equals(policy.getIsActive()))
+                .toList();
+        Map<Long, PolicyEntry> policies = new HashMap<>(current.policies);
+        policyIds.forEach(policies::remove);
+        policies.putAll(entriesFor(active));
+        return new Snapshot(policies);
+    }
+
+    private Map<Long, PolicyEntry> entriesFor(List<Policy> policies) {
+        Map<Long, Set<String>> capabilitiesByPolicy = new HashMap<>();
+        if (!policies.isEmpty()) {
+            for (PolicyRepository.PolicyCapabilitySummary row
+                    : policyRepository.findCapabilityNamesByPolicyIds(policies.stream().map(Policy::getId).toList())) {
+                capabilitiesByPolicy.computeIfAbsent(row.getPolicyId(), ignored -> new HashSet<>()).add(row.getCapabilityName());
+            }
+        }
+        Map<Long, PolicyEntry> entries = new HashMap<>();
+        for (Policy policy : policies) {
+            Set<String> roles = policy.getRoles();
+            if (roles.isEmpty()) {
+                continue;
+            }
+            // ABAC grants depend on the request, so they are checked per endpoint instead
+            Set<String> capabilities = "ABAC".equalsIgnoreCase(policy.getType())
+                    ? Set.of()
+                    : Set.copyOf(capabilitiesByPolicy.getOrDefault(policy.getId(), Set.of()));
+            entries.put(policy.getId(), new PolicyEntry(
+                    policy.getName(),
+                    "RBAC".equalsIgnoreCase(policy.getType()),
+                    Set.copyOf(roles),
+                    capabilities));
+        }
+        return entries;
+    }
+
+    private record PolicyEntry(String name, boolean rbac, Set<String> roles, Set<String> capabilities) {
+    }
+
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of());
+
+        final Map<Long, PolicyEntry> policies;
+        final Map<String, Set<String>> capabilitiesByRole;
+        final Map<String, Set<String>> rbacPolicyNamesByRole;
+
+        Snapshot(Map<Long, PolicyEntry> policies) {
+            Map<String, Set<String>> capabilities = new HashMap<>();
+            Map<String, Set<String>> rbacPolicyNames = new HashMap<>();
+            for (PolicyEntry policy : policies.values()) {
+                for (String role : policy.roles()) {
+                    capabilities.computeIfAbsent(role, ignored -> new TreeSet<>()).addAll(policy.capabilities());
+                    if (policy.rbac()) {
+                        rbacPolicyNames.computeIfAbsent(role, ignored -> new TreeSet<>()).add(policy.name());
+                    }
+                }
+            }
+            this.policies = Map.copyOf(policies);
+            this.capabilitiesByRole = freeze(capabilities);
+            this.rbacPolicyNamesByRole = freeze(rbacPolicyNames);
+        }
+
+        private static Map<String, Set<String>> freeze(Map<String, Set<String>> byRole) {
+            Map<String, Set<String>> frozen = new HashMap<>();
+            byRole.forEach((role, values) -> frozen.put(role, Collections.unmodifiableSet(values)));
+            return Map.copyOf(frozen);
+        }
+    }
+}
@@ -3,13 +3,13 @@ package com.example.userauth.service;
 import com.example.userauth.dao.RoleQueryDao;
 import com.example.userauth.entity.Role;
 import com.example.userauth.entity.User;
-import com.example.userauth.repository.CapabilityRepository;
-import com.example.userauth.repository.PolicyRepository;
 import com.example.userauth.repository.RoleRepository;
 import com.example.userauth.repository.UserRepository;
+import com.example.userauth.service.event.AuthorizationChangeEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,8 +17,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -40,10 +38,10 @@ public class RoleService {
     private RoleQueryDao roleQueryDao;
 
     @Autowired
-    private CapabilityRepository capabilityRepository;
+    private RoleCapabilityIndex roleCapabilityIndex;
 
     @Autowired
-    private PolicyRepository policyRepository;
+    private ApplicationEventPublisher eventPublisher;
         
     // READ OPERATIONS - Using Query DAO
     @Transactional(readOnly = true)
@@ -52,14 +50,8 @@ public class RoleService {
         List<Role> roles = roleQueryDao.findAll();
 
         for (Role role : roles) {
-            Set<String> capabilities = new LinkedHashSet<>(
-                    capabilityRepository.findCapabilityNamesByRoleName(role.getName()));
-            role.setCapabilityNames(capabilities);
-
-            Set<String> policies = policyRepository.findRBACPoliciesByRole(role.getName()).stream()
-                    .map(policy -> policy.getName())
-                    .collect(Collectors.toCollection(LinkedHashSet::new));
-            role.setPolicyNames(policies);
+            role.setCapabilityNames(new LinkedHashSet<>(roleCapabilityIndex.capabilitiesForRole(role.getName())));
+            role.setPolicyNames(new LinkedHashSet<>(roleCapabilityIndex.rbacPolicyNamesForRole(role.getName())));
         }
 
         return roles;
@@ -109,7 +101,9 @@ public class RoleService {
                 .orElse(1L);
         role.setId(nextId);
         
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.ROLE, saved.getId()));
+        return saved;
     }
     
     public Role updateRole(Long id, String name, String description) {
@@ -139,7 +133,14 @@ public class RoleService {
             return role;
         }
         
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        // Role names are granted as authorities, so principals built for its members are stale.
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.ROLE, id));
+        if (!role.getUsers().isEmpty()) {
+            eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.USER,
+                    role.getUsers().stream().map(User::getId).toList()));
+        }
+        return saved;
     }
     
     public void deleteRole(Long id) {
@@ -155,6 +156,7 @@ public class RoleService {
         }
         
         roleRepository.delete(role);
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.ROLE, id));
     }
     
     /**
@@ -180,7 +182,9 @@ public class RoleService {
                 .orElseThrow(() -> new IllegalArgumentException("Role not found with id: " + roleId));
         
         user.addRole(role);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.USER, userId));
+        return saved;
     }
     
     public User revokeRoleFromUser(Long userId, Long roleId) {
@@ -193,7 +197,9 @@ public class RoleService {
                 .orElseThrow(() -> new IllegalArgumentException("Role not found with id: " + roleId));
         
         user.removeRole(role);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(AuthorizationChangeEvent.of(AuthorizationChangeEvent.Type.USER, userId));
+        return saved;
     }
     
     @Transactional(readOnly = true)
@@ -218,13 +224,8 @@ public class RoleService {
         }
 
         Role role = roleOpt.get();
-        Set<String> capabilities = new LinkedHashSet<>(capabilityRepository.findCapabilityNamesByRoleName(role.getName()));
-        role.setCapabilityNames(capabilities);
-
-        Set<String> policyNames = policyRepository.findRBACPoliciesByRole(role.getName()).stream()
-                .map(policy -> policy.getName())
-                .collect(Collectors.toCollection(LinkedHashSet::new));
-        role.setPolicyNames(policyNames);
+        role.setCapabilityNames(new LinkedHashSet<>(roleCapabilityIndex.capabilitiesForRole(role.getName())));
+        role.setPolicyNames(new LinkedHashSet<>(roleCapabilityIndex.rbacPolicyNamesForRole(role.getName())));
 
         return Optional.of(role);
     }
@@ -2,17 +2,38 @@ package com.example.userauth.service;
 
 import com.example.userauth.entity.RevokedToken;
 import com.example.userauth.repository.RevokedTokenRepository;
+import com.example.userauth.security.ParsedToken;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import com.example.userauth.service.event.TokenRevokedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Persists identifiers for JWT tokens that have been explicitly revoked.
+ * <p>
+ * Lookups are answered from an in-memory {@link TokenRevocationIndex} that is loaded from
+ * {@code revoked_tokens} at startup. Other replicas' revocations arrive through the
+ * {@link com.example.userauth.service.invalidation.InvalidationBus}; an incremental sync by
+ * {@code created_at} every {@code app.jwt.revocation.sync-interval-ms}, and after any bus gap, catches
+ * whatever the bus missed. The database is only queried when the index's Bloom filter matches an id
+ * it does not hold.
  */
 @Service
 public class TokenBlacklistService {
@@ -22,6 +43,26 @@ public class TokenBlacklistService {
     @Autowired
     private RevokedTokenRepository revokedTokenRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Tokens expiring within this many seconds skip the revocation lookup. With short-lived access
+     * tokens this trades a bounded window of acceptance after logout for fewer lookups; 0 disables it.
+     */
+    @Value("${app.jwt.revocation.skip-check-within-seconds:0}")
+    private long skipCheckWithinSeconds;
+
+    /**
+     * Rows are re-read this far behind the newest {@code created_at} seen, covering transactions
+     * that committed late and clock drift between replicas. Re-reading a row is harmless.
+     */
+    private static final Duration SYNC_OVERLAP = Duration.ofMinutes(1);
+
+    private final TokenRevocationIndex revocationIndex = new TokenRevocationIndex();
+    private volatile boolean indexLoaded;
+    private Instant syncWatermark;
+
     @Transactional
     public void revokeToken(String tokenId, Long userId, Instant expiresAt) {
         if (!StringUtils.hasText(tokenId) || expiresAt == null) {
@@ -29,9 +70,6 @@ public class TokenBlacklistService {
             return;
         }
 
-        // Clean up any entries that have already expired to keep the table small.
-        revokedTokenRepository.deleteByExpiresAtBefore(Instant.now());
-
         revokedTokenRepository.findByTokenId(tokenId).ifPresentOrElse(existing -> {
             existing.setExpiresAt(expiresAt);
             logger.debug("Token {} already revoked. Updated expiration to {}", tokenId, expiresAt);
@@ -39,13 +77,104 @@ public class TokenBlacklistService {
             revokedTokenRepository.save(new RevokedToken(tokenId, userId, expiresAt));
             logger.debug("Token {} revoked until {}", tokenId, expiresAt);
         });
+        indexAfterCommit(tokenId, expiresAt);
+        eventPublisher.publishEvent(new TokenRevokedEvent(tokenId, expiresAt, false));
+    }
+
+    @Transactional
+    public void revokeToken(ParsedToken token) {
+        revokeToken(token.tokenId(), token.userId(), token.expiresAt());
+    }
+
+    public boolean isTokenRevoked(ParsedToken token) {
+        if (skipCheckWithinSeconds > 0 && token.expiresAt() != null
+                && token.expiresAt().isBefore(Instant.now().plusSeconds(skipCheckWithinSeconds))) {
+            return false;
+        }
+        return isTokenRevoked(token.tokenId());
     }
 
-    @Transactional(readOnly = true)
     public boolean isTokenRevoked(String tokenId) {
         if (!StringUtils.hasText(tokenId)) {
             return false;
         }
+        if (indexLoaded) {
+            switch (revocationIndex.lookup(tokenId)) {
+                case NOT_REVOKED:
+                    return false;
+                case REVOKED:
+                    return true;
+                default:
+                    break;
+            }
+        }
         return revokedTokenRepository.existsByTokenId(tokenId);
     }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevocationIndex() {
+        syncRevocationIndex();
+    }
+
+    // Runs before the caches derived from this index are invalidated
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onRemoteRevocation(TokenRevokedEvent event) {
+        if (event.remote() && event.expiresAt().isAfter(Instant.now())) {
+            revocationIndex.add(event.tokenId(), event.expiresAt());
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        syncRevocationIndex();
+    }
+
+    /**
+     * Pull revocations recorded since the last sync (by any replica) and evict expired entries.
+     * Until the first successful load every lookup goes to the database.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms:60000}")
+    public synchronized void syncRevocationIndex() {
+        Instant now = Instant.now();
+        try {
+            List<RevokedToken> rows = syncWatermark == null
+                ? revokedTokenRepository.findByExpiresAtAfter(now)
+                : revokedTokenRepository.findByCreatedAtAfter(syncWatermark.minus(SYNC_OVERLAP));
+            Instant watermark = syncWatermark;
+            for (RevokedToken row : rows) {
+                if (row.getExpiresAt().isAfter(now)) {
+                    revocationIndex.add(row.getTokenId(), row.getExpiresAt());
+                }
+                if (watermark == null || row.getCreatedAt().isAfter(watermark)) {
+                    watermark = row.getCreatedAt();
+                }
+            }
+            int evicted = revocationIndex.evictExpired(now);
+            if (!indexLoaded) {
+                logger.info("Loaded {} active token revocations into memory", revocationIndex.size());
+            } else if (!rows.isEmpty() || evicted > 0) {
+                logger.debug("Revocation index synced: {} rows read, {} evicted, {} active",
+                    rows.size(), evicted, revocationIndex.size());
+            }
+            syncWatermark = watermark != null ? watermark : now;
+            indexLoaded = true;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to sync token revocation index: {}", e.getMessage());
+        }
+    }
+
+    private void indexAfterCommit(String tokenId, Instant expiresAt) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            revocationIndex.add(tokenId, expiresAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                revocationIndex.add(tokenId, expiresAt);
+            }
+        });
+    }
 }
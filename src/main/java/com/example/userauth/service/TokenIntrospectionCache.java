@@ -0,0 +1,239 @@
+package com.example.userauth.service;
+
+import com.example.userauth.dto.internal.TokenIntrospectionResponse;
+import com.example.userauth.security.VerifiedTokenCache;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import com.example.userauth.service.event.TokenRevokedEvent;
+import com.example.userauth.service.event.UserStateChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Introspection results keyed by a SHA-256 digest of the raw token, so services introspecting the
+ * same token repeatedly are answered with one map lookup.
+ * <p>
+ * An entry lives until the token's {@code exp}, at most {@code app.jwt.introspection-cache.ttl-ms}.
+ * Entries are indexed by token id and user id and evicted as soon as the token is revoked or the
+ * user's permission version, token epoch or account flags change, on this instance or (through the
+ * invalidation bus) another one. A load that raced such an invalidation is not kept. Exposed as the
+ * {@code auth.introspection} cache metrics and the {@code auth.introspection.cache.hit.ratio} gauge.
+ * <p>
+ * Cached responses are shared and must not be modified.
+ */
+@Service
+public class TokenIntrospectionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenIntrospectionCache.class);
+
+    @Value("${app.jwt.introspection-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.jwt.introspection-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    /** Upper bound on staleness for changes missed while the invalidation bus is unavailable. */
+    @Value("${app.jwt.introspection-cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Set<String>> digestsByTokenId = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> digestsByUserId = new ConcurrentHashMap<>();
+    /** Bumped before every invalidation; a load that overlaps one is discarded. */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private Cache<String, TokenIntrospectionResponse> cache;
+
+    public TokenIntrospectionCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            logger.info("Introspection cache disabled; every introspection call is evaluated");
+            return;
+        }
+        cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new UntilTokenExpiry(Duration.ofMillis(ttlMillis).toNanos()))
+            .evictionListener((String digest, TokenIntrospectionResponse response, RemovalCause cause) -> {
+                if (digest != null && response != null) {
+                    unindex(digestsByTokenId, response.getTokenId(), digest);
+                    unindex(digestsByUserId, response.getUserId(), digest);
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.introspection");
+        Gauge.builder("auth.introspection.cache.hit.ratio", cache, c -> c.stats().hitRate())
+            .description("Share of introspection calls answered from the cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Return the cached result for the raw token, or run the introspection and cache its result.
+     * Failures propagate and are never cached.
+     */
+    public TokenIntrospectionResponse get(String rawToken, Function<String, TokenIntrospectionResponse> introspection) {
+        if (cache == null || rawToken == null || rawToken.isEmpty()) {
+            return introspection.apply(rawToken);
+        }
+        String digest = VerifiedTokenCache.digest(rawToken);
+        TokenIntrospectionResponse cached = cache.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = invalidations.get();
+        TokenIntrospectionResponse response = introspection.apply(rawToken);
+        // Cache before indexing so the stale-index cleanup never drops the index of a live entry
+        cache.put(digest, response);
+        index(digestsByTokenId, response.getTokenId(), digest);
+        index(digestsByUserId, response.getUserId(), digest);
+        if (invalidations.get() != generation && cache.asMap().remove(digest, response)) {
+            // Explicit removals bypass the eviction listener, so drop the index entries here
+            unindexIfAbsent(digestsByTokenId, response.getTokenId(), digest);
+            unindexIfAbsent(digestsByUserId, response.getUserId(), digest);
+        }
+        return response;
+    }
+
+    public void invalidateAll() {
+        if (cache == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        // Indexes first: a load indexed after this point is also cached after it, or dropped below
+        digestsByTokenId.clear();
+        digestsByUserId.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Runs after commit, and after {@link TokenBlacklistService} has indexed the revocation.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        if (cache != null) {
+            invalidations.incrementAndGet();
+            evict(digestsByTokenId.remove(event.tokenId()));
+        }
+    }
+
+    /**
+     * Runs after commit, and after {@link UserTokenStateRegistry} has published the new state.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserStateChanged(UserStateChangedEvent event) {
+        if (cache == null) {
+            return;
+        }
+        if (event.userIds().isEmpty()) {
+            invalidateAll();
+            return;
+        }
+        invalidations.incrementAndGet();
+        for (Long userId : event.userIds()) {
+            evict(digestsByUserId.remove(userId));
+        }
+    }
+
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        invalidateAll();
+    }
+
+    private void evict(Set<String> digests) {
+        if (digests == null) {
+            return;
+        }
+        for (String digest : digests) {
+            TokenIntrospectionResponse removed = cache.asMap().remove(digest);
+            if (removed != null) {
+                unindexIfAbsent(digestsByTokenId, removed.getTokenId(), digest);
+                unindexIfAbsent(digestsByUserId, removed.getUserId(), digest);
+            }
+        }
+    }
+
+    private static <K> void index(Map<K, Set<String>> index, K key, String digest) {
+        if (key != null) {
+            index.compute(key, (ignored, digests) -> {
+                Set<String> updated = digests != null ? digests : ConcurrentHashMap.newKeySet();
+                updated.add(digest);
+                return updated;
+            });
+        }
+    }
+
+    private static <K> void unindex(Map<K, Set<String>> index, K key, String digest) {
+        if (key != null) {
+            index.computeIfPresent(key, (ignored, digests) -> {
+                digests.remove(digest);
+                return digests.isEmpty() ? null : digests;
+            });
+        }
+    }
+
+    /**
+     * Drop the digest from the other index unless a concurrent load has cached it again meanwhile.
+     */
+    private <K> void unindexIfAbsent(Map<K, Set<String>> index, K key, String digest) {
+        if (key != null) {
+            index.computeIfPresent(key, (ignored, digests) -> {
+                if (!cache.asMap().containsKey(digest)) {
+                    digests.remove(digest);
+                }
+                return digests.isEmpty() ? null : digests;
+            });
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, TokenIntrospectionResponse> {
+
+        private final long maximumNanos;
+
+        UntilTokenExpiry(long maximumNanos) {
+            this.maximumNanos = maximumNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, TokenIntrospectionResponse response, long currentTime) {
+            if (response.getExpiresAt() == null) {
+                return 0L;
+            }
+            long untilExpiry = Duration.between(Instant.now(), response.getExpiresAt()).toNanos();
+            return Math.max(0L, Math.min(untilExpiry, maximumNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenIntrospectionResponse response, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, response, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenIntrospectionResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,17 +1,18 @@
 package com.example.userauth.service;
 
+import com.example.userauth.dto.internal.TokenAuthorizationResponse;
 import com.example.userauth.dto.internal.TokenIntrospectionResponse;
-import com.example.userauth.entity.User;
-import com.example.userauth.repository.UserRepository;
 import com.example.userauth.security.JwtUtils;
-import io.jsonwebtoken.Claims;
+import com.example.userauth.security.ParsedToken;
+import com.example.userauth.service.abac.AbacContext;
+import com.example.userauth.service.dto.EndpointAccessDecision;
+import com.example.userauth.service.dto.UserTokenState;
 import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.Optional;
 
 @Service
 public class TokenIntrospectionService {
@@ -19,70 +20,85 @@ public class TokenIntrospectionService {
     private static final Logger log = LoggerFactory.getLogger(TokenIntrospectionService.class);
 
     private final JwtUtils jwtUtils;
-    private final UserRepository userRepository;
     private final TokenBlacklistService tokenBlacklistService;
+    private final UserTokenStateRegistry userTokenStateRegistry;
+    private final AuthorizationDecisionService authorizationDecisionService;
+    private final TokenIntrospectionCache tokenIntrospectionCache;
 
     public TokenIntrospectionService(JwtUtils jwtUtils,
-                                     UserRepository userRepository,
-                                     TokenBlacklistService tokenBlacklistService) {
+                                     TokenBlacklistService tokenBlacklistService,
+                                     UserTokenStateRegistry userTokenStateRegistry,
+                                     AuthorizationDecisionService authorizationDecisionService,
+                                     TokenIntrospectionCache tokenIntrospectionCache) {
         this.jwtUtils = jwtUtils;
-        this.userRepository = userRepository;
         this.tokenBlacklistService = tokenBlacklistService;
+        this.userTokenStateRegistry = userTokenStateRegistry;
+        this.authorizationDecisionService = authorizationDecisionService;
+        this.tokenIntrospectionCache = tokenIntrospectionCache;
     }
 
+    /**
+     * Answered from {@link TokenIntrospectionCache} when the token was introspected before; the
+     * returned response may be shared and must not be modified.
+     */
     public TokenIntrospectionResponse introspect(String token) throws JwtException {
-        Claims claims = jwtUtils.parseClaims(token);
-        TokenIntrospectionResponse response = new TokenIntrospectionResponse();
+        return tokenIntrospectionCache.get(token,
+                raw -> introspect(jwtUtils.parseToken(raw), new TokenIntrospectionResponse()));
+    }
 
-        response.setSubject(claims.getSubject());
-        response.setTokenId(claims.getId());
-        if (claims.getExpiration() != null) {
-            response.setExpiresAt(claims.getExpiration().toInstant());
+    /**
+     * Introspect the token and, if it is active, decide {@code method path} for its user exactly as
+     * {@link com.example.userauth.security.DynamicEndpointAuthorizationManager} would.
+     */
+    public TokenAuthorizationResponse authorize(String token, String method, String path) throws JwtException {
+        TokenAuthorizationResponse response = TokenAuthorizationResponse.from(introspect(token));
+        if (!response.isActive()) {
+            return response;
         }
+        // Verified tokens are cached too, so this only looks up the parsed claims for the capability bitmap
+        ParsedToken parsed = jwtUtils.parseToken(token);
+
+        Long userId = response.getUserId();
+        EndpointAccessDecision decision = authorizationDecisionService.decide(method, path, userId,
+                response.getPermissionVersion(), parsed,
+                roles -> AbacContext.forEndpoint(userId, roles, method, path));
+        response.setAllowed(decision.allowed());
+        response.setReason(decision.reason());
+        response.setEndpointId(decision.endpointId());
+        return response;
+    }
+
+    private <T extends TokenIntrospectionResponse> T introspect(ParsedToken parsed, T response) {
 
-        String tokenId = claims.getId();
+        response.setSubject(parsed.subject());
+        response.setTokenId(parsed.tokenId());
+        response.setExpiresAt(parsed.expiresAt());
 
-        if (tokenBlacklistService.isTokenRevoked(tokenId)) {
-            log.debug("Introspection inactive because token {} is revoked", tokenId);
+        if (tokenBlacklistService.isTokenRevoked(parsed)) {
+            log.debug("Introspection inactive because token {} is revoked", parsed.tokenId());
             response.setActive(false);
             return response;
         }
 
-        Long tokenUserId = claims.get(JwtUtils.CLAIM_USER_ID, Long.class);
-        Integer tokenPermissionVersion = claims.get(JwtUtils.CLAIM_PERMISSION_VERSION, Integer.class);
-
-        Optional<User> userOpt = userRepository.findByUsername(claims.getSubject());
-
-        if (userOpt.isEmpty()) {
-            log.debug("Introspection: user {} not found", claims.getSubject());
+        UserTokenStateRegistry.TokenStatus status = userTokenStateRegistry.check(parsed);
+        if (status == UserTokenStateRegistry.TokenStatus.UNKNOWN_USER) {
+            log.debug("Introspection: no user for token {} (subject {})", parsed.tokenId(), parsed.subject());
             response.setActive(false);
             return response;
         }
 
-        User user = userOpt.get();
-        response.setUserId(user.getId());
-        response.setPermissionVersion(user.getPermissionVersion());
-
-        boolean accountActive = user.isEnabled()
-            && user.isAccountNonExpired()
-            && user.isAccountNonLocked()
-            && user.isCredentialsNonExpired();
-
-        boolean permissionMatches = tokenPermissionVersion != null
-            && tokenPermissionVersion.equals(user.getPermissionVersion());
-
-        boolean userMatches = tokenUserId == null || tokenUserId.equals(user.getId());
+        UserTokenState state = userTokenStateRegistry.stateOf(parsed.userId());
+        response.setUserId(parsed.userId());
+        response.setPermissionVersion(state != null ? state.permissionVersion() : null);
 
-        Instant now = Instant.now();
-        boolean notExpired = claims.getExpiration() == null
-            || claims.getExpiration().toInstant().isAfter(now);
+        boolean notExpired = !parsed.isExpired(Instant.now());
 
-        boolean active = accountActive && permissionMatches && userMatches && notExpired;
+        boolean active = status == UserTokenStateRegistry.TokenStatus.VALID && notExpired;
         response.setActive(active);
 
         if (!active) {
-            log.debug("Introspection inactive for user {} (accountActive={}, permissionMatches={}, userMatches={}, notExpired={})",
-                user.getUsername(), accountActive, permissionMatches, userMatches, notExpired);
+            log.debug("Introspection inactive for user {} (status={}, notExpired={})",
+                parsed.subject(), status, notExpired);
         }
 
         return response;
@@ -0,0 +1,143 @@
+package com.example.userauth.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process view of the revoked token ids that have not expired yet.
+ * <p>
+ * A Bloom filter sits in front of the exact set so the common case, a token that was never
+ * revoked, is answered with a few bit probes. Writers are serialized; readers never lock.
+ * Ids are added to the filter before the set, so a reader that races a write either misses both
+ * (the write has not happened yet) or sees a filter positive and falls back to the database.
+ */
+class TokenRevocationIndex {
+
+    enum Answer { NOT_REVOKED, REVOKED, UNKNOWN }
+
+    private static final int MIN_CAPACITY = 10_000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter = new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE);
+
+    /**
+     * {@code UNKNOWN} means the filter matched but the id is not in the set: either a false positive
+     * or an entry the index has not caught up with, and only the database can tell.
+     */
+    Answer lookup(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return Answer.NOT_REVOKED;
+        }
+        return revoked.containsKey(tokenId) ? Answer.REVOKED : Answer.UNKNOWN;
+    }
+
+    synchronized void add(String tokenId, Instant expiresAt) {
+        if (filter.size() >= filter.capacity()) {
+            rebuild();
+        }
+        filter.put(tokenId);
+        revoked.merge(tokenId, expiresAt, (existing, updated) -> updated.isAfter(existing) ? updated : existing);
+    }
+
+    /**
+     * Drop entries whose token has expired and rebuild the filter so it stops matching them.
+     *
+     * @return the number of evicted entries
+     */
+    synchronized int evictExpired(Instant now) {
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        int evicted = before - revoked.size();
+        if (evicted > 0) {
+            rebuild();
+        }
+        return evicted;
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    private void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_CAPACITY, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    /**
+     * Fixed-size Bloom filter over strings using double hashing of a 64-bit FNV-1a hash.
+     * Bits are set with atomic ORs so concurrent readers never observe a torn word.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final int capacity;
+        private int size;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((bits + 63) / 64));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+        }
+
+        void put(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                long mask = 1L << bit;
+                words.accumulateAndGet((int) (bit >>> 6), mask, (current, m) -> current | m);
+            }
+            size++;
+        }
+
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        private long index(int combined) {
+            return (combined < 0 ? ~combined : combined) % bitCount;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            // Murmur3 finalizer so both halves are well mixed for double hashing.
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.userauth.service;
 
 import com.example.userauth.entity.User;
 import com.example.userauth.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -9,8 +11,14 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Loads the full {@link User} for username/password authentication.
+ * Requests authenticated by JWT use the cached {@link com.example.userauth.security.UserPrincipal} instead.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
     
     @Autowired
     private UserRepository userRepository;
@@ -18,15 +26,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("DEBUG: loadUserByUsername called with: " + username);
         User user = userRepository.findByUsernameOrEmail(username)
                 .orElseThrow(() -> {
-                    System.out.println("DEBUG: User not found: " + username);
+                    logger.debug("User not found: {}", username);
                     return new UsernameNotFoundException("User Not Found: " + username);
                 });
         
-        System.out.println("DEBUG: User found: " + user.getUsername() + ", enabled: " + user.isEnabled());
-        System.out.println("DEBUG: User password starts with: " + (user.getPassword() != null ? user.getPassword().substring(0, 10) : "null"));
+        logger.debug("Loaded user {} (enabled: {})", user.getUsername(), user.isEnabled());
         return user;
     }
 }
@@ -0,0 +1,33 @@
+package com.example.userauth.service;
+
+import com.example.userauth.entity.User;
+import com.example.userauth.security.UserPrincipalCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Keeps {@link UserTokenStateRegistry} and {@link UserPrincipalCache} in step with every saved
+ * {@link User}, so permission version bumps, status changes and token epochs take effect on this
+ * instance as soon as they commit.
+ * Instantiated by Hibernate through Spring's bean container; both are injected lazily because
+ * they depend on repositories built from the same entity manager factory.
+ */
+public class UserTokenStateListener {
+
+    @Autowired
+    @Lazy
+    private UserTokenStateRegistry userTokenStateRegistry;
+
+    @Autowired
+    @Lazy
+    private UserPrincipalCache userPrincipalCache;
+
+    @PostPersist
+    @PostUpdate
+    public void userSaved(User user) {
+        userTokenStateRegistry.updateAfterCommit(user);
+        userPrincipalCache.evictAfterCommit(user.getId());
+    }
+}
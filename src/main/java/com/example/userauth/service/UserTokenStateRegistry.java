@@ -0,0 +1,188 @@
+package com.example.userauth.service;
+
+import com.example.userauth.entity.User;
+import com.example.userauth.repository.UserRepository;
+import com.example.userauth.security.ParsedToken;
+import com.example.userauth.service.dto.UserTokenState;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import com.example.userauth.service.event.UserStateChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the user fields that decide whether a token is still acceptable: permission
+ * version, token epoch ({@link User#getTokensValidAfter()}) and account flags.
+ * <p>
+ * Checking a token is a map lookup, so the request path never loads the {@link User}. Entries are
+ * published after commit whenever a saved user's state changed (see {@link UserTokenStateListener}); other
+ * instances drop theirs when the change reaches them through the
+ * {@link com.example.userauth.service.invalidation.InvalidationBus}. Entries are also reloaded after
+ * {@code app.jwt.user-state.ttl-ms}, which bounds staleness if the bus is unavailable. A token minted
+ * after its cached entry was loaded triggers one reload before it is rejected, so a newer permission
+ * version from another instance is not refused.
+ */
+@Service
+public class UserTokenStateRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserTokenStateRegistry.class);
+
+    public enum TokenStatus {
+        VALID,
+        UNKNOWN_USER,
+        ACCOUNT_INACTIVE,
+        ISSUED_BEFORE_EPOCH,
+        STALE_PERMISSION_VERSION
+    }
+
+    @Value("${app.jwt.user-state.ttl-ms:3600000}")
+    private long ttlMillis;
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public UserTokenStateRegistry(UserRepository userRepository, ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Check the token against its user's current state. Tokens without a {@code uid} claim cannot be
+     * attributed to a user and are reported as {@link TokenStatus#UNKNOWN_USER}.
+     */
+    public TokenStatus check(ParsedToken token) {
+        if (token.userId() == null) {
+            return TokenStatus.UNKNOWN_USER;
+        }
+        Entry entry = entryOf(token.userId());
+        TokenStatus status = statusOf(token, entry.state());
+        if (status != TokenStatus.VALID && token.issuedAt() != null
+                && token.issuedAt().toEpochMilli() > entry.loadedAtMillis()) {
+            status = statusOf(token, reload(token.userId(), entry).state());
+        }
+        return status;
+    }
+
+    /**
+     * Current state of the user, or {@code null} if no such user exists.
+     */
+    public UserTokenState stateOf(Long userId) {
+        return entryOf(userId).state();
+    }
+
+    /**
+     * Publish the user's current state once the surrounding transaction commits. The event is
+     * published after the update is registered, so after-commit listeners already see the new state.
+     * Saves that leave the state as this instance already knows it (e.g. a {@code lastLogin} update)
+     * publish nothing, so they do not evict the user's cached state here or on other instances.
+     */
+    public void updateAfterCommit(User user) {
+        Long userId = user.getId();
+        if (userId == null) {
+            return;
+        }
+        UserTokenState state = UserTokenState.of(user);
+        Entry current = entries.get(userId);
+        if (current != null && state.equals(current.state())) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            entries.put(userId, new Entry(state, System.currentTimeMillis()));
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    entries.put(userId, new Entry(state, System.currentTimeMillis()));
+                }
+            });
+        }
+        eventPublisher.publishEvent(new UserStateChangedEvent(Set.of(userId), false));
+    }
+
+    // Runs before the caches derived from this registry are invalidated
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onRemoteUserStateChange(UserStateChangedEvent event) {
+        if (!event.remote()) {
+            return;
+        }
+        if (event.userIds().isEmpty()) {
+            entries.clear();
+        } else {
+            event.userIds().forEach(entries::remove);
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(InvalidationGapEvent.class)
+    public void onInvalidationGap() {
+        entries.clear();
+    }
+
+    /**
+     * Drop entries past their TTL so users that stopped sending requests do not accumulate.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.user-state.ttl-ms:3600000}")
+    public void evictStale() {
+        long now = System.currentTimeMillis();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.isStale(now, ttlMillis));
+        if (entries.size() < before) {
+            logger.debug("Evicted {} stale user token states", before - entries.size());
+        }
+    }
+
+    private static TokenStatus statusOf(ParsedToken token, UserTokenState state) {
+        if (state == null) {
+            return TokenStatus.UNKNOWN_USER;
+        }
+        if (!state.isActive()) {
+            return TokenStatus.ACCOUNT_INACTIVE;
+        }
+        if (state.tokensValidAfter() != null
+                && (token.issuedAt() == null || token.issuedAt().isBefore(state.tokensValidAfter()))) {
+            return TokenStatus.ISSUED_BEFORE_EPOCH;
+        }
+        if (token.permissionVersion() == null || !token.permissionVersion().equals(state.permissionVersion())) {
+            return TokenStatus.STALE_PERMISSION_VERSION;
+        }
+        return TokenStatus.VALID;
+    }
+
+    private Entry entryOf(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null && !entry.isStale(System.currentTimeMillis(), ttlMillis)) {
+            return entry;
+        }
+        return reload(userId, entry);
+    }
+
+    private Entry reload(Long userId, Entry previous) {
+        Entry loaded = new Entry(userRepository.findTokenStateById(userId).orElse(null), System.currentTimeMillis());
+        // Do not overwrite an entry published by a commit that finished while we were loading.
+        boolean stored = previous == null
+            ? entries.putIfAbsent(userId, loaded) == null
+            : entries.replace(userId, previous, loaded);
+        return stored ? loaded : entries.getOrDefault(userId, loaded);
+    }
+
+    private record Entry(UserTokenState state, long loadedAtMillis) {
+
+        boolean isStale(long nowMillis, long ttlMillis) {
+            return nowMillis - loadedAtMillis >= ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.userauth.service.abac;
+
+/**
+ * Contributes an attribute that ABAC conditions can reference, such as {@code user.department}
+ * from a directory service. Every bean of this type is registered by {@link AbacAttributes}.
+ * <p>
+ * {@link #resolve} runs at most once per authorization decision, and only if a condition that is
+ * actually evaluated needs the value.
+ */
+public interface AbacAttributeProvider {
+
+    /**
+     * Full attribute name, e.g. {@code user.department}.
+     */
+    String name();
+
+    /**
+     * Relative cost of {@link #resolve}; cheaper operands of {@code &&} and {@code ||} are tested first.
+     */
+    default int cost() {
+        return AbacAttributes.COST_REMOTE;
+    }
+
+    /**
+     * @return the value (string, number, boolean or collection), or {@code null} if unknown
+     */
+    Object resolve(AbacContext context);
+}
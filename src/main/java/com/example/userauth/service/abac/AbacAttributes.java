@@ -0,0 +1,124 @@
+package com.example.userauth.service.abac;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Registry of the attributes ABAC conditions can reference.
+ * <p>
+ * Built in:
+ * <ul>
+ *   <li>{@code user.id}, {@code user.roles}</li>
+ *   <li>{@code request.method}, {@code request.path}, {@code request.ip}, {@code request.header.<name>},
+ *       {@code request.param.<name>}</li>
+ *   <li>{@code resource.<name>}: attributes supplied by the calling service</li>
+ *   <li>{@code env.date} ({@code 2024-05-31}), {@code env.time} ({@code 09:30}), {@code env.hour},
+ *       {@code env.minute}, {@code env.dayOfWeek} ({@code MONDAY}), in {@code app.authorization.abac.zone}</li>
+ * </ul>
+ * Further attributes (department, tenant, ...) come from {@link AbacAttributeProvider} beans.
+ * Each attribute gets a slot in {@link AbacContext} when it is first referenced.
+ */
+@Component
+public class AbacAttributes {
+
+    /** Cost of a value already held by the context. */
+    public static final int COST_LOCAL = 1;
+    /** Cost of a value derived from the HTTP request or the clock. */
+    public static final int COST_DERIVED = 2;
+    /** Default cost of a provider, which may call another system. */
+    public static final int COST_REMOTE = 10;
+
+    private static final String HEADER_PREFIX = "request.header.";
+    private static final String PARAM_PREFIX = "request.param.";
+    private static final String RESOURCE_PREFIX = "resource.";
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final Map<String, Attribute> attributes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final ZoneId zone;
+
+    public AbacAttributes(ObjectProvider<AbacAttributeProvider> providers,
+                          @Value("${app.authorization.abac.zone:UTC}") String zone) {
+        this.zone = ZoneId.of(zone);
+
+        register("user.id", COST_LOCAL, AbacContext::getUserId);
+        register("user.roles", COST_LOCAL, AbacContext::getRoles);
+        register("request.method", COST_LOCAL, AbacContext::getMethod);
+        register("request.path", COST_LOCAL, AbacContext::getPath);
+        register("request.ip", COST_LOCAL, context -> fromRequest(context, HttpServletRequest::getRemoteAddr));
+        register("env.date", COST_DERIVED, context -> localTime(context).toLocalDate().toString());
+        register("env.time", COST_DERIVED, context -> TIME.format(localTime(context)));
+        register("env.hour", COST_DERIVED, context -> localTime(context).getHour());
+        register("env.minute", COST_DERIVED, context -> localTime(context).getMinute());
+        register("env.dayOfWeek", COST_DERIVED, context -> localTime(context).getDayOfWeek());
+
+        providers.orderedStream().forEach(provider -> {
+            if (attributes.containsKey(provider.name()) || isParameterized(provider.name())) {
+                throw new IllegalStateException("ABAC attribute " + provider.name() + " is already defined");
+            }
+            register(provider.name(), provider.cost(), provider::resolve);
+        });
+    }
+
+    /**
+     * @throws IllegalArgumentException if no such attribute exists
+     */
+    public Attribute lookup(String name) {
+        Attribute attribute = attributes.get(name);
+        if (attribute != null) {
+            return attribute;
+        }
+        if (name.startsWith(HEADER_PREFIX) && name.length() > HEADER_PREFIX.length()) {
+            String header = name.substring(HEADER_PREFIX.length());
+            return attributes.computeIfAbsent(name, key -> newAttribute(key, COST_DERIVED,
+                context -> fromRequest(context, request -> request.getHeader(header))));
+        }
+        if (name.startsWith(PARAM_PREFIX) && name.length() > PARAM_PREFIX.length()) {
+            String param = name.substring(PARAM_PREFIX.length());
+            return attributes.computeIfAbsent(name, key -> newAttribute(key, COST_DERIVED,
+                context -> fromRequest(context, request -> request.getParameter(param))));
+        }
+        if (name.startsWith(RESOURCE_PREFIX) && name.length() > RESOURCE_PREFIX.length()) {
+            String key = name.substring(RESOURCE_PREFIX.length());
+            return attributes.computeIfAbsent(name, ignored -> newAttribute(ignored, COST_LOCAL,
+                context -> context.getResource().get(key)));
+        }
+        throw new IllegalArgumentException("Unknown attribute '" + name + "'");
+    }
+
+    private void register(String name, int cost, Function<AbacContext, Object> resolver) {
+        attributes.put(name, newAttribute(name, cost, resolver));
+    }
+
+    private Attribute newAttribute(String name, int cost, Function<AbacContext, Object> resolver) {
+        return new Attribute(name, nextSlot.getAndIncrement(), Math.max(cost, COST_LOCAL), resolver);
+    }
+
+    private static boolean isParameterized(String name) {
+        return name.startsWith(HEADER_PREFIX) || name.startsWith(PARAM_PREFIX) || name.startsWith(RESOURCE_PREFIX);
+    }
+
+    private ZonedDateTime localTime(AbacContext context) {
+        return context.getNow().atZone(zone);
+    }
+
+    private static Object fromRequest(AbacContext context, Function<HttpServletRequest, Object> getter) {
+        return context.getRequest() != null ? getter.apply(context.getRequest()) : null;
+    }
+
+    /**
+     * A registered attribute and its slot in {@link AbacContext}.
+     */
+    public record Attribute(String name, int slot, int cost, Function<AbacContext, Object> resolver) {
+    }
+}
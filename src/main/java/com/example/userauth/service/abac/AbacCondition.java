@@ -0,0 +1,16 @@
+package com.example.userauth.service.abac;
+
+/**
+ * A compiled ABAC condition. Immutable and safe to share between threads.
+ *
+ * @see AbacConditionCompiler
+ */
+public interface AbacCondition {
+
+    boolean test(AbacContext context);
+
+    /**
+     * Estimated evaluation cost, used to order the operands of {@code &&} and {@code ||}.
+     */
+    int cost();
+}
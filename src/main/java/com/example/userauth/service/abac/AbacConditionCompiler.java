@@ -0,0 +1,615 @@
+package com.example.userauth.service.abac;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles ABAC condition text into an {@link AbacCondition} tree.
+ * <p>
+ * Grammar, loosest binding first:
+ * <pre>
+ * condition  := and (('||' | 'or') and)*
+ * and        := not (('&amp;&amp;' | 'and') not)*
+ * not        := ('!' | 'not') not | comparison
+ * comparison := operand (('==' | '!=' | '&lt;' | '&lt;=' | '&gt;' | '&gt;=' | 'in' | 'contains') operand)?
+ * operand    := 'string' | "string" | number | true | false | null | [literal, ...] | attribute | '(' condition ')'
+ * </pre>
+ * e.g. {@code resource.ownerId == user.id || (user.roles contains 'AUDITOR' && env.hour >= 8 && env.hour < 18)}.
+ * <p>
+ * Attributes are checked against {@link AbacAttributes} at compile time. Sub-conditions without
+ * attributes are folded into constants, nested {@code &&}/{@code ||} are flattened and their
+ * operands ordered cheapest first, so the tree short-circuits before resolving costly attributes.
+ * Ordering comparisons only hold between two numbers or two strings; a missing attribute is
+ * {@code null} and equals only {@code null}.
+ */
+@Component
+public class AbacConditionCompiler {
+
+    static final int MAX_LENGTH = 4096;
+    private static final int MAX_DEPTH = 64;
+
+    private final AbacAttributes attributes;
+
+    public AbacConditionCompiler(AbacAttributes attributes) {
+        this.attributes = attributes;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the condition is malformed or references an unknown attribute
+     */
+    public AbacCondition compile(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("ABAC condition is empty");
+        }
+        if (source.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("ABAC condition is longer than " + MAX_LENGTH + " characters");
+        }
+        Parser parser = new Parser(source);
+        AbacCondition condition = parser.condition(0);
+        parser.expectEnd();
+        return condition;
+    }
+
+    private final class Parser {
+
+        private final String source;
+        private int position;
+
+        Parser(String source) {
+            this.source = source;
+        }
+
+        AbacCondition condition(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw error("nested too deeply");
+            }
+            List<AbacCondition> operands = new ArrayList<>();
+            operands.add(and(depth));
+            while (acceptSymbol("||") || acceptKeyword("or")) {
+                operands.add(and(depth));
+            }
+            return any(operands);
+        }
+
+        private AbacCondition and(int depth) {
+            List<AbacCondition> operands = new ArrayList<>();
+            operands.add(not(depth));
+            while (acceptSymbol("&&") || acceptKeyword("and")) {
+                operands.add(not(depth));
+            }
+            return all(operands);
+        }
+
+        private AbacCondition not(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw error("nested too deeply");
+            }
+            if (peekSymbol("!=")) {
+                throw error("unexpected '!='");
+            }
+            if (acceptSymbol("!") || acceptKeyword("not")) {
+                return negate(not(depth + 1));
+            }
+            return comparison(depth);
+        }
+
+        private AbacCondition comparison(int depth) {
+            skipWhitespace();
+            if (peekSymbol("(")) {
+                position++;
+                AbacCondition nested = condition(depth + 1);
+                expectSymbol(")");
+                return nested;
+            }
+            Operand left = operand();
+            Operator operator = operator();
+            if (operator == null) {
+                return truthy(left);
+            }
+            int at = position;
+            Operand right = operand();
+            if (operator.ordering && (left.value() instanceof Collection<?> || right.value() instanceof Collection<?>)) {
+                throw errorAt(at, "'" + operator.symbol + "' cannot compare lists");
+            }
+            return compare(operator, left, right);
+        }
+
+        private Operator operator() {
+            skipWhitespace();
+            for (Operator operator : Operator.values()) {
+                if (operator.keyword ? acceptKeyword(operator.symbol) : acceptSymbol(operator.symbol)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+
+        private Operand operand() {
+            skipWhitespace();
+            if (position >= source.length()) {
+                throw error("operand expected");
+            }
+            char c = source.charAt(position);
+            if (c == '\'' || c == '"') {
+                return new Literal(string());
+            }
+            if (c == '-' || Character.isDigit(c)) {
+                return new Literal(number());
+            }
+            if (c == '[') {
+                return new Literal(list());
+            }
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = position;
+                String name = identifier();
+                switch (name) {
+                    case "true":
+                        return new Literal(Boolean.TRUE);
+                    case "false":
+                        return new Literal(Boolean.FALSE);
+                    case "null":
+                        return new Literal(null);
+                    default:
+                        try {
+                            return new AttributeOperand(attributes.lookup(name));
+                        } catch (IllegalArgumentException e) {
+                            throw errorAt(start, e.getMessage());
+                        }
+                }
+            }
+            throw error("unexpected '" + c + "'");
+        }
+
+        private Set<Object> list() {
+            position++;
+            Set<Object> values = new HashSet<>();
+            skipWhitespace();
+            if (acceptSymbol("]")) {
+                return values;
+            }
+            do {
+                Operand element = operand();
+                if (!element.isConstant() || element.value() instanceof Collection<?>) {
+                    throw error("list elements must be literals");
+                }
+                values.add(element.value());
+            } while (acceptSymbol(","));
+            expectSymbol("]");
+            return values;
+        }
+
+        private String string() {
+            char quote = source.charAt(position++);
+            StringBuilder value = new StringBuilder();
+            while (position < source.length()) {
+                char c = source.charAt(position++);
+                if (c == quote) {
+                    return value.toString();
+                }
+                if (c == '\\' && position < source.length()) {
+                    c = source.charAt(position++);
+                }
+                value.append(c);
+            }
+            throw error("unterminated string");
+        }
+
+        private Object number() {
+            int start = position;
+            if (source.charAt(position) == '-') {
+                position++;
+            }
+            while (position < source.length()
+                    && (Character.isDigit(source.charAt(position)) || source.charAt(position) == '.')) {
+                position++;
+            }
+            String text = source.substring(start, position);
+            try {
+                return AbacContext.normalize(text.contains(".") ? Double.parseDouble(text) : Long.parseLong(text));
+            } catch (NumberFormatException e) {
+                throw errorAt(start, "invalid number '" + text + "'");
+            }
+        }
+
+        private String identifier() {
+            int start = position;
+            while (position < source.length()
+                    && (Character.isJavaIdentifierPart(source.charAt(position)) || source.charAt(position) == '.'
+                        || source.charAt(position) == '-')) {
+                position++;
+            }
+            return source.substring(start, position);
+        }
+
+        private boolean peekSymbol(String symbol) {
+            skipWhitespace();
+            return source.startsWith(symbol, position);
+        }
+
+        private boolean acceptSymbol(String symbol) {
+            if (!peekSymbol(symbol)) {
+                return false;
+            }
+            // '<' must not swallow the first half of '<=', nor '!' of '!='
+            if (symbol.length() == 1 && position + 1 < source.length() && source.charAt(position + 1) == '='
+                    && "<>!=".indexOf(symbol.charAt(0)) >= 0) {
+                return false;
+            }
+            position += symbol.length();
+            return true;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            skipWhitespace();
+            int end = position + keyword.length();
+            if (!source.startsWith(keyword, position)
+                    || (end < source.length() && Character.isJavaIdentifierPart(source.charAt(end)))) {
+                return false;
+            }
+            position = end;
+            return true;
+        }
+
+        private void expectSymbol(String symbol) {
+            if (!acceptSymbol(symbol)) {
+                throw error("'" + symbol + "' expected");
+            }
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (position < source.length()) {
+                throw error("unexpected '" + source.charAt(position) + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < source.length() && Character.isWhitespace(source.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return errorAt(position, message);
+        }
+
+        private IllegalArgumentException errorAt(int at, String message) {
+            return new IllegalArgumentException("Invalid ABAC condition at position " + at + ": " + message);
+        }
+    }
+
+    // Folding and ordering
+
+    private static AbacCondition all(List<AbacCondition> operands) {
+        List<AbacCondition> remaining = new ArrayList<>();
+        for (AbacCondition operand : operands) {
+            if (operand instanceof Constant constant) {
+                if (!constant.value) {
+                    return Constant.FALSE;
+                }
+            } else if (operand instanceof All nested) {
+                remaining.addAll(List.of(nested.operands));
+            } else {
+                remaining.add(operand);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return Constant.TRUE;
+        }
+        return remaining.size() == 1 ? remaining.get(0) : new All(cheapestFirst(remaining));
+    }
+
+    private static AbacCondition any(List<AbacCondition> operands) {
+        List<AbacCondition> remaining = new ArrayList<>();
+        for (AbacCondition operand : operands) {
+            if (operand instanceof Constant constant) {
+                if (constant.value) {
+                    return Constant.TRUE;
+                }
+            } else if (operand instanceof Any nested) {
+                remaining.addAll(List.of(nested.operands));
+            } else {
+                remaining.add(operand);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return Constant.FALSE;
+        }
+        return remaining.size() == 1 ? remaining.get(0) : new Any(cheapestFirst(remaining));
+    }
+
+    private static AbacCondition negate(AbacCondition operand) {
+        if (operand instanceof Constant constant) {
+            return constant.value ? Constant.FALSE : Constant.TRUE;
+        }
+        if (operand instanceof Not not) {
+            return not.operand;
+        }
+        return new Not(operand);
+    }
+
+    private static AbacCondition truthy(Operand operand) {
+        if (operand.isConstant()) {
+            return Boolean.TRUE.equals(operand.value()) ? Constant.TRUE : Constant.FALSE;
+        }
+        return new Truthy(operand);
+    }
+
+    private static AbacCondition compare(Operator operator, Operand left, Operand right) {
+        if (left.isConstant() && right.isConstant()) {
+            return operator.test(left.value(), right.value()) ? Constant.TRUE : Constant.FALSE;
+        }
+        return new Comparison(operator, left, right);
+    }
+
+    private static AbacCondition[] cheapestFirst(List<AbacCondition> operands) {
+        // Stable, so equally cheap operands keep the order they were written in
+        return operands.stream().sorted(Comparator.comparingInt(AbacCondition::cost)).toArray(AbacCondition[]::new);
+    }
+
+    // Evaluator tree
+
+    private interface Operand {
+
+        Object value(AbacContext context);
+
+        int cost();
+
+        default boolean isConstant() {
+            return false;
+        }
+
+        /** Value of a constant operand. */
+        default Object value() {
+            return null;
+        }
+    }
+
+    private record Literal(Object value) implements Operand {
+
+        @Override
+        public Object value(AbacContext context) {
+            return value;
+        }
+
+        @Override
+        public int cost() {
+            return 0;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    private record AttributeOperand(AbacAttributes.Attribute attribute) implements Operand {
+
+        @Override
+        public Object value(AbacContext context) {
+            return context.value(attribute);
+        }
+
+        @Override
+        public int cost() {
+            return attribute.cost();
+        }
+    }
+
+    private static final class Constant implements AbacCondition {
+
+        static final Constant TRUE = new Constant(true);
+        static final Constant FALSE = new Constant(false);
+
+        private final boolean value;
+
+        private Constant(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(AbacContext context) {
+            return value;
+        }
+
+        @Override
+        public int cost() {
+            return 0;
+        }
+    }
+
+    private record Truthy(Operand operand) implements AbacCondition {
+
+        @Override
+        public boolean test(AbacContext context) {
+            return Boolean.TRUE.equals(operand.value(context));
+        }
+
+        @Override
+        public int cost() {
+            return operand.cost();
+        }
+    }
+
+    private record Not(AbacCondition operand) implements AbacCondition {
+
+        @Override
+        public boolean test(AbacContext context) {
+            return !operand.test(context);
+        }
+
+        @Override
+        public int cost() {
+            return operand.cost();
+        }
+    }
+
+    private record Comparison(Operator operator, Operand left, Operand right) implements AbacCondition {
+
+        @Override
+        public boolean test(AbacContext context) {
+            return operator.test(left.value(context), right.value(context));
+        }
+
+        @Override
+        public int cost() {
+            return left.cost() + right.cost();
+        }
+    }
+
+    private static final class All implements AbacCondition {
+
+        private final AbacCondition[] operands;
+        private final int cost;
+
+        All(AbacCondition[] operands) {
+            this.operands = operands;
+            this.cost = totalCost(operands);
+        }
+
+        @Override
+        public boolean test(AbacContext context) {
+            for (AbacCondition operand : operands) {
+                if (!operand.test(context)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int cost() {
+            return cost;
+        }
+    }
+
+    private static final class Any implements AbacCondition {
+
+        private final AbacCondition[] operands;
+        private final int cost;
+
+        Any(AbacCondition[] operands) {
+            this.operands = operands;
+            this.cost = totalCost(operands);
+        }
+
+        @Override
+        public boolean test(AbacContext context) {
+            for (AbacCondition operand : operands) {
+                if (operand.test(context)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int cost() {
+            return cost;
+        }
+    }
+
+    private static int totalCost(AbacCondition[] operands) {
+        int cost = 0;
+        for (AbacCondition operand : operands) {
+            cost += operand.cost();
+        }
+        return cost;
+    }
+
+    private enum Operator {
+        // Two-character symbols first so '<' does not match the start of '<='
+        EQ("==", false, false),
+        NE("!=", false, false),
+        LE("<=", false, true),
+        GE(">=", false, true),
+        LT("<", false, true),
+        GT(">", false, true),
+        IN("in", true, false),
+        CONTAINS("contains", true, false);
+
+        final String symbol;
+        final boolean keyword;
+        final boolean ordering;
+
+        Operator(String symbol, boolean keyword, boolean ordering) {
+            this.symbol = symbol;
+            this.keyword = keyword;
+            this.ordering = ordering;
+        }
+
+        boolean test(Object left, Object right) {
+            switch (this) {
+                case EQ:
+                    return same(left, right);
+                case NE:
+                    return !same(left, right);
+                case LT:
+                    return order(left, right) < 0;
+                case LE:
+                    return order(left, right) <= 0 && comparable(left, right);
+                case GT:
+                    return order(left, right) > 0;
+                case GE:
+                    return order(left, right) >= 0 && comparable(left, right);
+                case IN:
+                    return contains(right, left);
+                case CONTAINS:
+                    return contains(left, right);
+                default:
+                    return false;
+            }
+        }
+
+        private static boolean same(Object left, Object right) {
+            if (left instanceof Number && right instanceof Number) {
+                return order(left, right) == 0;
+            }
+            return left == null ? right == null : left.equals(right);
+        }
+
+        private static boolean comparable(Object left, Object right) {
+            return (left instanceof Number && right instanceof Number) || (left instanceof String && right instanceof String);
+        }
+
+        /**
+         * Ordering of two numbers or two strings, and {@code 0} for anything else (see {@link #comparable}).
+         */
+        private static int order(Object left, Object right) {
+            if (left instanceof Long a && right instanceof Long b) {
+                return Long.compare(a, b);
+            }
+            if (left instanceof Number a && right instanceof Number b) {
+                return Double.compare(a.doubleValue(), b.doubleValue());
+            }
+            if (left instanceof String a && right instanceof String b) {
+                return a.compareTo(b);
+            }
+            return 0;
+        }
+
+        private static boolean contains(Object container, Object element) {
+            if (container instanceof Collection<?> values) {
+                if (element instanceof Collection<?> elements) {
+                    for (Object value : elements) {
+                        if (values.contains(value)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                return values.contains(element);
+            }
+            if (container instanceof String text && element instanceof String part) {
+                return text.contains(part);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.userauth.service.abac;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inputs of one authorization decision and the attribute values resolved for it so far.
+ * <p>
+ * Attribute values are resolved on first use and kept in a slot array, so each attribute is
+ * resolved at most once per decision however many policies reference it. Not thread-safe; create
+ * one per decision.
+ */
+public final class AbacContext {
+
+    private static final Object UNRESOLVED = new Object();
+
+    private final Long userId;
+    private final Set<String> roles;
+    private final String method;
+    private final String path;
+    private final HttpServletRequest request;
+    private final Map<String, Object> resource;
+    private final Instant now;
+    private Object[] values;
+
+    private AbacContext(Long userId, Set<String> roles, String method, String path, HttpServletRequest request,
+                        Map<String, Object> resource, Instant now) {
+        this.userId = userId;
+        this.roles = roles != null ? roles : Set.of();
+        this.method = method;
+        this.path = path;
+        this.request = request;
+        this.resource = resource != null ? resource : Map.of();
+        this.now = now;
+    }
+
+    /**
+     * Context for an HTTP request being authorized.
+     */
+    public static AbacContext forRequest(Long userId, Set<String> roles, HttpServletRequest request) {
+        return new AbacContext(userId, roles, request.getMethod(), request.getRequestURI(), request, Map.of(), Instant.now());
+    }
+
+    /**
+     * Context for a request another service is authorizing, known only by method and path.
+     */
+    public static AbacContext forEndpoint(Long userId, Set<String> roles, String method, String path) {
+        return new AbacContext(userId, roles, method, path, null, Map.of(), Instant.now());
+    }
+
+    /**
+     * Context for a decision made on behalf of another service, with the resource attributes it supplied.
+     */
+    public static AbacContext forResource(Long userId, Set<String> roles, Map<String, Object> resource) {
+        return new AbacContext(userId, roles, null, null, null, resource, Instant.now());
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * The HTTP request, or {@code null} if the decision is not for one made to this service.
+     */
+    public HttpServletRequest getRequest() {
+        return request;
+    }
+
+    public Map<String, Object> getResource() {
+        return resource;
+    }
+
+    /**
+     * Decision time; fixed for the whole decision so time window checks agree with each other.
+     */
+    public Instant getNow() {
+        return now;
+    }
+
+    Object value(AbacAttributes.Attribute attribute) {
+        int slot = attribute.slot();
+        if (values == null || slot >= values.length) {
+            int oldLength = values == null ? 0 : values.length;
+            values = values == null ? new Object[Math.max(slot + 1, 8)] : Arrays.copyOf(values, Math.max(slot + 1, oldLength * 2));
+            Arrays.fill(values, oldLength, values.length, UNRESOLVED);
+        }
+        Object value = values[slot];
+        if (value == UNRESOLVED) {
+            value = normalize(attribute.resolver().apply(this));
+            values[slot] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Integral numbers become {@link Long}, other numbers {@link Double}, collections sets of normalized
+     * elements and enums their names, so equality and membership do not depend on the source type.
+     */
+    static Object normalize(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Long) {
+            return value;
+        }
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Number number) {
+            double asDouble = number.doubleValue();
+            if (asDouble == Math.rint(asDouble) && Math.abs(asDouble) < 9.0E15) {
+                return (long) asDouble;
+            }
+            return asDouble;
+        }
+        if (value instanceof Collection<?> collection) {
+            Set<Object> normalized = new HashSet<>();
+            for (Object element : collection) {
+                normalized.add(normalize(element));
+            }
+            return normalized;
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value.toString();
+    }
+}
@@ -1,26 +1,29 @@
 package com.example.userauth.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
 /**
  * Immutable snapshot representing the authorization state for a user.
- * This is built on-demand (no caching yet) and reused by UI and backend enforcement.
+ * Cached per user and permission version by {@code AuthorizationMatrixCache} and reused by UI and
+ * backend enforcement.
  */
 public class AuthorizationMatrix {
 
     private final Long userId;
     private final Integer permissionVersion;
     private final Set<String> roles;
-    private final Set<String> capabilities;
+    private final CapabilitySet capabilities;
 
     public AuthorizationMatrix(Long userId, Integer permissionVersion,
                                Set<String> roles, Set<String> capabilities) {
         this.userId = userId;
         this.permissionVersion = permissionVersion;
         this.roles = roles != null ? Collections.unmodifiableSet(new HashSet<>(roles)) : Set.of();
-        this.capabilities = capabilities != null ? Collections.unmodifiableSet(new HashSet<>(capabilities)) : Set.of();
+        this.capabilities = CapabilitySet.of(capabilities);
     }
 
     public Long getUserId() {
@@ -35,7 +38,15 @@ public class AuthorizationMatrix {
         return roles;
     }
 
+    /**
+     * Capability names; built from {@link #getCapabilitySet()} on each call, so prefer that for checks.
+     */
     public Set<String> getCapabilities() {
+        return capabilities.names();
+    }
+
+    @JsonIgnore
+    public CapabilitySet getCapabilitySet() {
         return capabilities;
     }
 }
@@ -0,0 +1,80 @@
+package com.example.userauth.service.dto;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, versioned mapping between capability names and bit positions.
+ * A capability's bit is its database id, so bitmaps stay comparable across replicas and restarts.
+ * The version is a digest of the capability catalog and the policy grants behind it; any change to
+ * either produces a new version, which makes bitmaps minted against an older dictionary stale.
+ */
+public final class CapabilityDictionary {
+
+    public static final CapabilityDictionary EMPTY = new CapabilityDictionary("empty", Map.of());
+
+    private final String version;
+    private final Map<String, Integer> idsByName;
+    private final String[] namesById;
+
+    public CapabilityDictionary(String version, Map<String, Integer> idsByName) {
+        this.version = version;
+        this.idsByName = Map.copyOf(idsByName);
+        int maxId = idsByName.values().stream().mapToInt(Integer::intValue).max().orElse(-1);
+        this.namesById = new String[maxId + 1];
+        idsByName.forEach((name, id) -> namesById[id] = name);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the bit position of the capability, or -1 if it is unknown or inactive
+     */
+    public int idOf(String capabilityName) {
+        Integer id = idsByName.get(capabilityName);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        return id >= 0 && id < namesById.length ? namesById[id] : null;
+    }
+
+    public BitSet toBitSet(Collection<String> capabilityNames) {
+        BitSet bits = new BitSet(namesById.length);
+        for (String name : capabilityNames) {
+            int id = idOf(name);
+            if (id >= 0) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+
+    public Set<String> toNames(BitSet bits) {
+        Set<String> names = new HashSet<>();
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            String name = nameOf(id);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Encode capability names as a base64url bitmap suitable for a token claim.
+     */
+    public String encode(Collection<String> capabilityNames) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(toBitSet(capabilityNames).toByteArray());
+    }
+
+    public static BitSet decode(String encoded) {
+        return BitSet.valueOf(Base64.getUrlDecoder().decode(encoded));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.userauth.service.dto;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable set of capabilities stored as a {@code long[]} bitset.
+ * <p>
+ * Capability names are interned process-wide into dense int ids on first use, so sets built at
+ * different times are always comparable and {@link #intersects} is a word-by-word AND without
+ * allocation or string hashing. Ids are never reused and are local to this JVM; use
+ * {@link CapabilityDictionary} for bitmaps that leave the process.
+ */
+public final class CapabilitySet {
+
+    public static final CapabilitySet EMPTY = new CapabilitySet(new long[0]);
+
+    private static final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private static volatile String[] namesById = new String[64];
+    private static int nextId;
+
+    private final long[] words;
+
+    private CapabilitySet(long[] words) {
+        this.words = words;
+    }
+
+    public static CapabilitySet of(Collection<String> capabilityNames) {
+        if (capabilityNames == null || capabilityNames.isEmpty()) {
+            return EMPTY;
+        }
+        long[] words = new long[0];
+        for (String name : capabilityNames) {
+            int id = intern(name);
+            int word = id >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << id;
+        }
+        return new CapabilitySet(words);
+    }
+
+    public static CapabilitySet of(String... capabilityNames) {
+        return of(Arrays.asList(capabilityNames));
+    }
+
+    public boolean contains(String capabilityName) {
+        Integer id = idsByName.get(capabilityName);
+        if (id == null) {
+            return false;
+        }
+        int word = id >>> 6;
+        return word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * Whether the two sets share at least one capability.
+     */
+    public boolean intersects(CapabilitySet other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether every capability of {@code other} is in this set.
+     */
+    public boolean containsAll(CapabilitySet other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long word = i < words.length ? words[i] : 0L;
+            if ((other.words[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * Capability names in the set, in id order.
+     */
+    public Set<String> names() {
+        String[] names = namesById;
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                result.add(names[(i << 6) + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CapabilitySet other)) {
+            return false;
+        }
+        return containsAll(other) && other.containsAll(this);
+    }
+
+    @Override
+    public int hashCode() {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.hashCode(Arrays.copyOf(words, length));
+    }
+
+    @Override
+    public String toString() {
+        return names().toString();
+    }
+
+    private static int intern(String name) {
+        Integer id = idsByName.get(name);
+        return id != null ? id : register(name);
+    }
+
+    private static synchronized int register(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        int assigned = nextId++;
+        String[] names = namesById;
+        if (assigned >= names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[assigned] = name;
+        // Publish the name before the id so names() never sees an id without its name.
+        namesById = names;
+        idsByName.put(name, assigned);
+        return assigned;
+    }
+}
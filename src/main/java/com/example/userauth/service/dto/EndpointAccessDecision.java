@@ -0,0 +1,18 @@
+package com.example.userauth.service.dto;
+
+/**
+ * Outcome of one {@link EndpointAccessQuery}.
+ *
+ * @param endpointId the matched endpoint, or {@code null} if none matched
+ * @param reason why access was granted or denied, e.g. {@code CAPABILITY}, {@code POLICY}, {@code NOT_CATALOGED}
+ */
+public record EndpointAccessDecision(Long endpointId, boolean allowed, String reason) {
+
+    public static final String CAPABILITY = "CAPABILITY";
+    public static final String POLICY = "POLICY";
+    public static final String DENIED = "DENIED";
+    public static final String NOT_CATALOGED = "NOT_CATALOGED";
+    public static final String NO_POLICIES = "NO_POLICIES";
+    public static final String USER_NOT_FOUND = "USER_NOT_FOUND";
+    public static final String INVALID_QUERY = "INVALID_QUERY";
+}
@@ -0,0 +1,19 @@
+package com.example.userauth.service.dto;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One access check of a batch: an endpoint, by id or by method and path, and a subject, by user id or
+ * by roles. A user id takes precedence over roles, as its roles are resolved here.
+ *
+ * @param attributes resource attributes for ABAC conditions ({@code resource.*}); may be {@code null}
+ */
+public record EndpointAccessQuery(
+        Long endpointId,
+        String method,
+        String path,
+        Long userId,
+        Set<String> roles,
+        Map<String, Object> attributes) {
+}
@@ -14,6 +14,7 @@ public class EndpointAuthorizationMetadata {
     private final boolean hasPolicies;
     private final Set<Long> policyIds;
     private final Set<String> requiredCapabilities;
+    private final CapabilitySet requiredCapabilitySet;
 
     public EndpointAuthorizationMetadata(boolean endpointFound,
                                          Long endpointId,
@@ -27,6 +28,7 @@ public class EndpointAuthorizationMetadata {
         this.requiredCapabilities = requiredCapabilities != null
                 ? Collections.unmodifiableSet(new HashSet<>(requiredCapabilities))
                 : Set.of();
+        this.requiredCapabilitySet = CapabilitySet.of(this.requiredCapabilities);
     }
 
     public boolean isEndpointFound() {
@@ -52,4 +54,8 @@ public class EndpointAuthorizationMetadata {
     public Set<String> getRequiredCapabilities() {
         return requiredCapabilities;
     }
+
+    public CapabilitySet getRequiredCapabilitySet() {
+        return requiredCapabilitySet;
+    }
 }
@@ -0,0 +1,120 @@
+package com.example.userauth.service.dto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, fully materialized view of the endpoint catalog: endpoints per HTTP method and, per
+ * endpoint, the linked policy ids and the capabilities those policies grant.
+ * Built off the request path and swapped in as a whole, so readers never see a partial catalog.
+ */
+public final class EndpointAuthorizationSnapshot {
+
+    public static final EndpointAuthorizationMetadata NOT_CATALOGED =
+            new EndpointAuthorizationMetadata(false, null, false, null, null);
+
+    public static final EndpointAuthorizationSnapshot EMPTY =
+            new EndpointAuthorizationSnapshot(List.of(), Map.of(), 0L);
+
+    private final List<EndpointDescriptor> endpoints;
+    private final Map<String, RouteTrie> routesByMethod;
+    private final Map<Long, EndpointAuthorizationMetadata> metadataByEndpointId;
+    private final long builtAtMillis;
+
+    /**
+     * @param endpoints all cataloged endpoints; inactive ones are never matched
+     * @param metadataByEndpointId authorization metadata for every endpoint in {@code endpoints}
+     */
+    public EndpointAuthorizationSnapshot(List<EndpointDescriptor> endpoints,
+                                         Map<Long, EndpointAuthorizationMetadata> metadataByEndpointId,
+                                         long builtAtMillis) {
+        Map<String, List<EndpointDescriptor>> byMethod = new HashMap<>();
+        for (EndpointDescriptor endpoint : endpoints) {
+            if (endpoint.method() == null) {
+                continue;
+            }
+            byMethod.computeIfAbsent(endpoint.method(), ignored -> new ArrayList<>()).add(endpoint);
+        }
+        Map<String, RouteTrie> routes = new HashMap<>();
+        byMethod.forEach((method, list) -> routes.put(method, RouteTrie.build(list)));
+        this.endpoints = List.copyOf(endpoints);
+        this.routesByMethod = Map.copyOf(routes);
+        this.metadataByEndpointId = Map.copyOf(metadataByEndpointId);
+        this.builtAtMillis = builtAtMillis;
+    }
+
+    /**
+     * Metadata of the most specific active endpoint matching the request, or {@link #NOT_CATALOGED}.
+     *
+     * @param method upper-case HTTP method
+     */
+    public EndpointAuthorizationMetadata match(String method, String path) {
+        RouteTrie routes = routesByMethod.get(method);
+        Long endpointId = routes != null ? routes.match(path) : null;
+        return endpointId != null ? metadataFor(endpointId) : NOT_CATALOGED;
+    }
+
+    public EndpointAuthorizationMetadata metadataFor(Long endpointId) {
+        EndpointAuthorizationMetadata metadata = metadataByEndpointId.get(endpointId);
+        return metadata != null ? metadata : NOT_CATALOGED;
+    }
+
+    /**
+     * Ids of the endpoints guarded by any of the given policies.
+     */
+    public Set<Long> endpointIdsForPolicies(Collection<Long> policyIds) {
+        Set<Long> endpointIds = new HashSet<>();
+        metadataByEndpointId.forEach((endpointId, metadata) -> {
+            for (Long policyId : metadata.getPolicyIds()) {
+                if (policyIds.contains(policyId)) {
+                    endpointIds.add(endpointId);
+                    return;
+                }
+            }
+        });
+        return endpointIds;
+    }
+
+    /**
+     * Copy of this snapshot with the given endpoints replaced or removed; all other endpoints are shared.
+     *
+     * @param changedEndpointIds every endpoint id that was reloaded; ids missing from {@code reloaded} are removed
+     * @param reloaded current descriptors of the reloaded endpoints that still exist
+     * @param reloadedMetadata metadata for every endpoint in {@code reloaded}
+     */
+    public EndpointAuthorizationSnapshot withEndpoints(Set<Long> changedEndpointIds,
+                                                       List<EndpointDescriptor> reloaded,
+                                                       Map<Long, EndpointAuthorizationMetadata> reloadedMetadata,
+                                                       long builtAtMillis) {
+        List<EndpointDescriptor> patchedEndpoints = new ArrayList<>(endpoints.size() + reloaded.size());
+        for (EndpointDescriptor endpoint : endpoints) {
+            if (!changedEndpointIds.contains(endpoint.id())) {
+                patchedEndpoints.add(endpoint);
+            }
+        }
+        patchedEndpoints.addAll(reloaded);
+        patchedEndpoints.sort(Comparator.comparing(EndpointDescriptor::id));
+
+        Map<Long, EndpointAuthorizationMetadata> patchedMetadata = new HashMap<>(metadataByEndpointId);
+        changedEndpointIds.forEach(patchedMetadata::remove);
+        patchedMetadata.putAll(reloadedMetadata);
+        return new EndpointAuthorizationSnapshot(patchedEndpoints, patchedMetadata, builtAtMillis);
+    }
+
+    public int size() {
+        return metadataByEndpointId.size();
+    }
+
+    public long getBuiltAtMillis() {
+        return builtAtMillis;
+    }
+
+    public record EndpointDescriptor(Long id, String method, String path, String service, String version, boolean active) {
+    }
+}
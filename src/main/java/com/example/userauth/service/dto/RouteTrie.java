@@ -0,0 +1,224 @@
+package com.example.userauth.service.dto;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Segment trie over Ant-style endpoint paths for one HTTP method.
+ * <p>
+ * Lookup cost depends on the depth of the request path, not on the size of the catalog. The most
+ * specific route wins, compared segment by segment from the left: a literal segment beats a
+ * segment pattern with literal text ({@code *.csv}, {@code v{n}}), which beats a bare wildcard
+ * ({@code *}, {@code {id}}), which beats {@code **}. When the same route is registered by several
+ * endpoints, the lowest endpoint id wins. The {@code /api/{service}/{version}} and
+ * {@code /api/{service}} prefixes are expanded when the trie is built.
+ */
+final class RouteTrie {
+
+    private static final AntPathMatcher SEGMENT_MATCHER = new AntPathMatcher();
+
+    private final Node root;
+
+    private RouteTrie(Node root) {
+        this.root = root;
+    }
+
+    static RouteTrie build(List<EndpointAuthorizationSnapshot.EndpointDescriptor> endpoints) {
+        Node root = new Node();
+        for (EndpointAuthorizationSnapshot.EndpointDescriptor endpoint : endpoints) {
+            if (!endpoint.active()) {
+                continue;
+            }
+            for (String route : routesFor(endpoint)) {
+                root.insert(tokenize(route), 0, endpoint.id());
+            }
+        }
+        root.seal();
+        return new RouteTrie(root);
+    }
+
+    /**
+     * @return id of the most specific endpoint matching the path, or {@code null}
+     */
+    Long match(String path) {
+        return root.match(tokenize(path), 0);
+    }
+
+    private static Set<String> routesFor(EndpointAuthorizationSnapshot.EndpointDescriptor endpoint) {
+        String path = stripQuery(endpoint.path());
+        Set<String> routes = new LinkedHashSet<>();
+        routes.add(path);
+        if (StringUtils.hasText(endpoint.service())) {
+            String service = trimSlashes(endpoint.service());
+            String version = trimSlashes(endpoint.version());
+            String suffix = path.startsWith("/") ? path : "/" + path;
+            if (StringUtils.hasText(version)) {
+                routes.add("/api/" + service + "/" + version + suffix);
+            }
+            routes.add("/api/" + service + suffix);
+        }
+        return routes;
+    }
+
+    private static String stripQuery(String path) {
+        if (path == null) {
+            return "/";
+        }
+        int queryIndex = path.indexOf('?');
+        return queryIndex >= 0 ? path.substring(0, queryIndex) : path;
+    }
+
+    private static String trimSlashes(String value) {
+        if (value == null) {
+            return "";
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) == '/') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) == '/') {
+            end--;
+        }
+        return value.substring(start, end);
+    }
+
+    /**
+     * Split on '/' and drop empty segments, as {@link AntPathMatcher} does.
+     */
+    private static String[] tokenize(String path) {
+        return StringUtils.tokenizeToStringArray(path, "/", false, true);
+    }
+
+    private enum SegmentKind {
+        LITERAL, PATTERN, WILDCARD, DOUBLE_WILDCARD;
+
+        static SegmentKind of(String segment) {
+            if ("**".equals(segment)) {
+                return DOUBLE_WILDCARD;
+            }
+            if ("*".equals(segment) || (segment.startsWith("{") && segment.endsWith("}")
+                    && segment.indexOf('{', 1) < 0 && segment.indexOf(':') < 0)) {
+                return WILDCARD;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+                return PATTERN;
+            }
+            return LITERAL;
+        }
+    }
+
+    private static final class Node {
+
+        private Map<String, Node> literals = new HashMap<>();
+        private List<PatternChild> patterns = new ArrayList<>();
+        private Node doubleWildcard;
+        private Long endpointId;
+        private long minEndpointId = Long.MAX_VALUE;
+
+        void insert(String[] segments, int index, Long id) {
+            minEndpointId = Math.min(minEndpointId, id);
+            if (index == segments.length) {
+                if (endpointId == null || id < endpointId) {
+                    endpointId = id;
+                }
+                return;
+            }
+            String segment = segments[index];
+            Node child;
+            switch (SegmentKind.of(segment)) {
+                case LITERAL:
+                    child = literals.computeIfAbsent(segment, ignored -> new Node());
+                    break;
+                case DOUBLE_WILDCARD:
+                    if (doubleWildcard == null) {
+                        doubleWildcard = new Node();
+                    }
+                    child = doubleWildcard;
+                    break;
+                default:
+                    child = patternChild(segment);
+                    break;
+            }
+            child.insert(segments, index + 1, id);
+        }
+
+        private Node patternChild(String segment) {
+            for (PatternChild existing : patterns) {
+                if (existing.pattern().equals(segment)) {
+                    return existing.node();
+                }
+            }
+            PatternChild created = new PatternChild(segment, SegmentKind.of(segment), new Node());
+            patterns.add(created);
+            return created.node();
+        }
+
+        /**
+         * Freeze the node and order pattern children by specificity, then by lowest endpoint id.
+         */
+        void seal() {
+            literals = Map.copyOf(literals);
+            literals.values().forEach(Node::seal);
+            patterns.forEach(child -> child.node().seal());
+            patterns = patterns.stream()
+                    .sorted(Comparator.comparing(PatternChild::kind)
+                            .thenComparingLong(child -> child.node().minEndpointId)
+                            .thenComparing(PatternChild::pattern))
+                    .toList();
+            if (doubleWildcard != null) {
+                doubleWildcard.seal();
+            }
+        }
+
+        Long match(String[] segments, int index) {
+            if (index == segments.length) {
+                if (endpointId != null) {
+                    return endpointId;
+                }
+                return doubleWildcard != null ? doubleWildcard.match(segments, index) : null;
+            }
+            String segment = segments[index];
+            Node literal = literals.get(segment);
+            if (literal != null) {
+                Long matched = literal.match(segments, index + 1);
+                if (matched != null) {
+                    return matched;
+                }
+            }
+            for (PatternChild child : patterns) {
+                if (child.matches(segment)) {
+                    Long matched = child.node().match(segments, index + 1);
+                    if (matched != null) {
+                        return matched;
+                    }
+                }
+            }
+            if (doubleWildcard != null) {
+                // '**' consumes as few segments as possible so later literals keep their precedence.
+                for (int next = index; next <= segments.length; next++) {
+                    Long matched = doubleWildcard.match(segments, next);
+                    if (matched != null) {
+                        return matched;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private record PatternChild(String pattern, SegmentKind kind, Node node) {
+
+        boolean matches(String segment) {
+            return kind == SegmentKind.WILDCARD || SEGMENT_MATCHER.match(pattern, segment);
+        }
+    }
+}
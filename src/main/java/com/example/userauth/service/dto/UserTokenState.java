@@ -0,0 +1,32 @@
+package com.example.userauth.service.dto;
+
+import com.example.userauth.entity.User;
+
+import java.time.Instant;
+
+/**
+ * The parts of a user that decide whether its tokens are still acceptable, loaded without the
+ * user's roles or credentials.
+ */
+public record UserTokenState(
+        Integer permissionVersion,
+        Instant tokensValidAfter,
+        boolean enabled,
+        boolean accountNonExpired,
+        boolean accountNonLocked,
+        boolean credentialsNonExpired) {
+
+    public static UserTokenState of(User user) {
+        return new UserTokenState(
+                user.getPermissionVersion(),
+                user.getTokensValidAfter(),
+                user.isEnabled(),
+                user.isAccountNonExpired(),
+                user.isAccountNonLocked(),
+                user.isCredentialsNonExpired());
+    }
+
+    public boolean isActive() {
+        return enabled && accountNonExpired && accountNonLocked && credentialsNonExpired;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.userauth.service.event;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by the admin write paths when authorization data changes.
+ * Listeners run after the publishing transaction commits (or immediately when there is none) and
+ * invalidate or patch only the cache entries derived from the changed rows. Local events are
+ * broadcast to the other instances, which publish them again with {@code remote} set.
+ *
+ * @param type kind of entity that changed
+ * @param ids ids of the changed entities of that kind; empty means any entity of that kind may have changed
+ * @param remote whether the change was made on another instance
+ */
+public record AuthorizationChangeEvent(Type type, Set<Long> ids, boolean remote) {
+
+    public enum Type {
+        ENDPOINT, POLICY, CAPABILITY, PAGE_ACTION, ROLE, USER
+    }
+
+    public AuthorizationChangeEvent {
+        Objects.requireNonNull(type, "type");
+        ids = ids == null ? Set.of() : Set.copyOf(ids);
+    }
+
+    public static AuthorizationChangeEvent of(Type type, Long id) {
+        return new AuthorizationChangeEvent(type, id != null ? Set.of(id) : Set.of(), false);
+    }
+
+    public static AuthorizationChangeEvent of(Type type, Collection<Long> ids) {
+        return new AuthorizationChangeEvent(type, ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()), false);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.userauth.service.event;
+
+/**
+ * Invalidations from other instances may have been missed, for example while the bus connection
+ * was down. Every in-memory cache fed by the bus reloads from the database.
+ */
+public record InvalidationGapEvent() {
+}
@@ -0,0 +1,10 @@
+package com.example.userauth.service.event;
+
+import java.time.Instant;
+
+/**
+ * A token was revoked. Published locally by {@code TokenBlacklistService} and broadcast to the
+ * other instances, which publish it again with {@code remote} set.
+ */
+public record TokenRevokedEvent(String tokenId, Instant expiresAt, boolean remote) {
+}
@@ -0,0 +1,16 @@
+package com.example.userauth.service.event;
+
+import java.util.Set;
+
+/**
+ * Permission version, token epoch or account flags of the users were saved.
+ * Broadcast to the other instances, which publish it again with {@code remote} set.
+ *
+ * @param userIds ids of the saved users; empty means any user may have changed
+ */
+public record UserStateChangedEvent(Set<Long> userIds, boolean remote) {
+
+    public UserStateChangedEvent {
+        userIds = userIds == null ? Set.of() : Set.copyOf(userIds);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.userauth.service.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers payloads synchronously to every receiver started on the same transport instance.
+ * Meant for tests, where several buses can share one transport to act as separate instances;
+ * a single instance using it receives only its own messages, which the bus ignores.
+ */
+@Component
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "in-process")
+public class InProcessInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<String>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(String payload) {
+        receivers.forEach(receiver -> receiver.accept(payload));
+    }
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onGap) {
+        receivers.add(receiver);
+        onGap.run();
+    }
+
+    @Override
+    public void stop() {
+        receivers.clear();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.userauth.service.invalidation;
+
+import com.example.userauth.service.event.AuthorizationChangeEvent;
+import com.example.userauth.service.event.InvalidationGapEvent;
+import com.example.userauth.service.event.TokenRevokedEvent;
+import com.example.userauth.service.event.UserStateChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Broadcasts committed revocations, user state changes and catalog changes to the other instances
+ * and publishes theirs locally, so in-memory auth caches stay authoritative without polling.
+ * <p>
+ * Local {@link AuthorizationChangeEvent}, {@link TokenRevokedEvent} and {@link UserStateChangedEvent}s
+ * are sent after commit; received ones are published again with {@code remote} set and handled by
+ * the same listeners. When the transport reports a gap, an {@link InvalidationGapEvent} makes every
+ * cache reload. The transport is chosen by {@code app.invalidation.transport}: {@code postgres}
+ * (default), {@code in-process} or {@code none}, which leaves other instances to the periodic refreshes.
+ */
+@Service
+public class InvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+
+    /** PostgreSQL rejects NOTIFY payloads of 8000 bytes or more. */
+    private static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public InvalidationBus(ObjectProvider<InvalidationTransport> transport,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper) {
+        this.transport = transport.getIfAvailable();
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (transport == null) {
+            logger.info("No invalidation transport configured; other instances rely on periodic cache refreshes");
+            return;
+        }
+        transport.start(this::receive, () -> eventPublisher.publishEvent(new InvalidationGapEvent()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (transport != null) {
+            transport.stop();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorizationChange(AuthorizationChangeEvent event) {
+        if (!event.remote()) {
+            send(Kind.AUTHORIZATION_CHANGE, event.type().name(), event.ids(), null);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        if (!event.remote()) {
+            send(Kind.TOKEN_REVOKED, null, List.of(event.tokenId()), event.expiresAt().toEpochMilli());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserStateChanged(UserStateChangedEvent event) {
+        if (!event.remote()) {
+            send(Kind.USER_STATE, null, event.userIds(), null);
+        }
+    }
+
+    private void send(Kind kind, String type, Set<Long> ids, Long expiresAtMillis) {
+        send(kind, type, ids.stream().map(String::valueOf).toList(), expiresAtMillis);
+    }
+
+    private void send(Kind kind, String type, List<String> keys, Long expiresAtMillis) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(new Message(nodeId, kind, type, keys, expiresAtMillis));
+            if (payload.length() > MAX_PAYLOAD_LENGTH && kind != Kind.TOKEN_REVOKED) {
+                // Without keys receivers invalidate everything of that kind.
+                payload = objectMapper.writeValueAsString(new Message(nodeId, kind, type, List.of(), null));
+            }
+            transport.send(payload);
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Failed to broadcast {} invalidation: {}", kind, e.getMessage());
+        }
+    }
+
+    void receive(String payload) {
+        Message message;
+        try {
+            message = objectMapper.readValue(payload, Message.class);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed invalidation message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(message.origin())) {
+            return;
+        }
+        switch (message.kind()) {
+            case AUTHORIZATION_CHANGE:
+                eventPublisher.publishEvent(new AuthorizationChangeEvent(
+                    AuthorizationChangeEvent.Type.valueOf(message.type()), longIds(message), true));
+                break;
+            case TOKEN_REVOKED:
+                eventPublisher.publishEvent(new TokenRevokedEvent(
+                    message.keys().get(0), Instant.ofEpochMilli(message.expiresAtMillis()), true));
+                break;
+            case USER_STATE:
+                eventPublisher.publishEvent(new UserStateChangedEvent(longIds(message), true));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static Set<Long> longIds(Message message) {
+        return message.keys() == null ? Set.of() : message.keys().stream().map(Long::valueOf).collect(Collectors.toSet());
+    }
+
+    enum Kind {
+        AUTHORIZATION_CHANGE, TOKEN_REVOKED, USER_STATE
+    }
+
+    record Message(String origin, Kind kind, String type, List<String> keys, Long expiresAtMillis) {
+    }
+}
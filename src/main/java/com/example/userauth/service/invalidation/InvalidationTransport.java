@@ -0,0 +1,25 @@
+package com.example.userauth.service.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link InvalidationBus} messages between the instances of this service.
+ * Delivery is best effort: a transport that may have lost messages reports a gap, and the bus
+ * then has every cache reload from the database.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Broadcast a payload to every instance, including this one. Must not block the caller on I/O.
+     */
+    void send(String payload);
+
+    /**
+     * Start delivering payloads to {@code receiver}.
+     *
+     * @param onGap called whenever messages may have been missed, including when listening (re)starts
+     */
+    void start(Consumer<String> receiver, Runnable onGap);
+
+    void stop();
+}
@@ -0,0 +1,185 @@
+package com.example.userauth.service.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Broadcasts over PostgreSQL {@code LISTEN/NOTIFY} on {@code app.invalidation.channel}.
+ * <p>
+ * Uses two dedicated connections outside the pool: one blocks in {@code LISTEN}, the other sends
+ * {@code pg_notify} in autocommit mode from a single thread, so messages leave in the order they
+ * were sent and callers never wait for the database. A lost listener connection is reopened after
+ * {@code app.invalidation.reconnect-delay-ms} and reported as a gap. Does not work through a
+ * transaction-pooling proxy such as PgBouncer in transaction mode.
+ */
+@Component
+@ConditionalOnProperty(name = "app.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+
+    @Value("${app.invalidation.poll-timeout-ms:500}")
+    private int pollTimeoutMillis;
+
+    @Value("${app.invalidation.reconnect-delay-ms:5000}")
+    private long reconnectDelayMillis;
+
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "invalidation-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Confined to the sender thread. */
+    private Connection sendConnection;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresInvalidationTransport(DataSourceProperties dataSourceProperties,
+                                         @Value("${app.invalidation.channel:auth_invalidation}") String channel) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+    }
+
+    @Override
+    public void send(String payload) {
+        sender.execute(() -> {
+            try {
+                notify(payload);
+            } catch (SQLException first) {
+                closeSendConnection();
+                try {
+                    notify(payload);
+                } catch (SQLException e) {
+                    closeSendConnection();
+                    logger.warn("Failed to broadcast invalidation on channel {}: {}", channel, e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public synchronized void start(Consumer<String> receiver, Runnable onGap) {
+        if (running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(() -> listen(receiver, onGap), "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        sender.execute(this::closeSendConnection);
+        sender.shutdown();
+    }
+
+    private void listen(Consumer<String> receiver, Runnable onGap) {
+        while (running) {
+            try (Connection connection = connect()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                logger.info("Listening for cache invalidations on channel {}", channel);
+                signalGap(onGap);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(receiver, notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Invalidation listener on channel {} lost its connection, retrying in {} ms: {}",
+                    channel, reconnectDelayMillis, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void signalGap(Runnable onGap) {
+        try {
+            onGap.run();
+        } catch (RuntimeException e) {
+            logger.error("Failed to handle invalidation gap on channel {}: {}", channel, e.getMessage(), e);
+        }
+    }
+
+    private void deliver(Consumer<String> receiver, String payload) {
+        try {
+            receiver.accept(payload);
+        } catch (RuntimeException e) {
+            logger.error("Failed to apply invalidation {}: {}", payload, e.getMessage(), e);
+        }
+    }
+
+    private void notify(String payload) throws SQLException {
+        if (sendConnection == null || sendConnection.isClosed()) {
+            sendConnection = connect();
+        }
+        try (PreparedStatement statement = sendConnection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, channel);
+            statement.setString(2, payload);
+            statement.execute();
+        }
+    }
+
+    private void closeSendConnection() {
+        if (sendConnection == null) {
+            return;
+        }
+        try {
+            sendConnection.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close invalidation sender connection: {}", e.getMessage());
+        }
+        sendConnection = null;
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+            dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(),
+            dataSourceProperties.determinePassword());
+    }
+}